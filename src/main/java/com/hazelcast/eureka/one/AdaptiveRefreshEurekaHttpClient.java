@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.function.Consumer;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+
+/**
+ * {@link EurekaHttpClient} which lets the registry refreshes, scheduled every minimum interval, through to the
+ * Eureka server only once the {@link AdaptiveRefreshInterval} elapsed.
+ * <p>
+ * Delta fetches in between return an empty delta carrying the hash code of the registry as of the last fetch,
+ * so the {@code DiscoveryClient} keeps its registry. Fetches of the Hazelcast application in between return the
+ * last fetched application. Full fetches always go to the Eureka server, they are only sent on start and to
+ * reconcile the registry.
+ */
+final class AdaptiveRefreshEurekaHttpClient extends EurekaHttpClientDecorator {
+
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+
+    private final AdaptiveRefreshInterval interval;
+    private final EurekaHttpClient delegate;
+    private volatile EurekaHttpResponse<Application> lastApplicationResponse;
+
+    AdaptiveRefreshEurekaHttpClient(AdaptiveRefreshInterval interval, EurekaHttpClient delegate) {
+        this.interval = interval;
+        this.delegate = delegate;
+    }
+
+    static EndpointClientDecorator decorator(AdaptiveRefreshInterval interval) {
+        return (endpoint, client) -> new AdaptiveRefreshEurekaHttpClient(interval, client);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <R> EurekaHttpResponse<R> execute(RequestExecutor<R> requestExecutor) {
+        switch (requestExecutor.getRequestType()) {
+            case GetApplications:
+                return onResponse(requestExecutor.execute(delegate), interval::onRegistryFetched);
+            case GetDelta:
+                String appsHashCode = interval.getAppsHashCode();
+                if (appsHashCode != null && !interval.isFetchDue()) {
+                    Applications delta = new Applications();
+                    delta.setAppsHashCode(appsHashCode);
+                    return (EurekaHttpResponse<R>) anEurekaHttpResponse(OK, delta)
+                            .type(MediaType.APPLICATION_JSON_TYPE)
+                            .build();
+                }
+                return onResponse(requestExecutor.execute(delegate), interval::onDeltaFetched);
+            case GetApplication:
+                EurekaHttpResponse<Application> last = lastApplicationResponse;
+                if (last != null && !interval.isFetchDue()) {
+                    return (EurekaHttpResponse<R>) last;
+                }
+                EurekaHttpResponse<R> response = requestExecutor.execute(delegate);
+                if (response.getStatusCode() == OK || response.getStatusCode() == NOT_FOUND) {
+                    Application application = response.getStatusCode() == OK ? (Application) response.getEntity() : null;
+                    interval.onApplicationFetched(application);
+                    lastApplicationResponse = (EurekaHttpResponse<Application>) response;
+                }
+                return response;
+            default:
+                return requestExecutor.execute(delegate);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private static <R> EurekaHttpResponse<R> onResponse(EurekaHttpResponse<R> response, Consumer<Applications> listener) {
+        if (response.getStatusCode() == OK && response.getEntity() != null) {
+            listener.accept((Applications) response.getEntity());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.hazelcast.cluster.MembershipEvent;
+import com.hazelcast.cluster.MembershipListener;
+import com.hazelcast.core.HazelcastInstance;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Interval between the registry fetches actually sent to a Eureka server, adapting to the churn of the Hazelcast
+ * application.
+ * <p>
+ * The interval is reset to its minimum whenever the Hazelcast application changed since the previous fetch or a
+ * member joined or left the cluster, and stays there while the local member is still forming its cluster. After
+ * every fetch which found the application unchanged it doubles, up to its maximum.
+ */
+final class AdaptiveRefreshInterval {
+
+    private final String applicationName;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final BooleanSupplier forming;
+    private final LongSupplier nanoClock;
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    // guarded by this
+    private long intervalNanos;
+    // guarded by this
+    private boolean fetched;
+    // guarded by this
+    private boolean fetchRequested;
+    // guarded by this
+    private long lastFetchNanos;
+    // guarded by this
+    private long fingerprint;
+    // guarded by this
+    private String appsHashCode;
+
+    /**
+     * @param forming if the local member is still forming its cluster
+     */
+    AdaptiveRefreshInterval(String applicationName, long minIntervalMillis, long maxIntervalMillis,
+                            BooleanSupplier forming) {
+        this(applicationName, minIntervalMillis, maxIntervalMillis, forming, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    AdaptiveRefreshInterval(String applicationName, long minIntervalMillis, long maxIntervalMillis,
+                            BooleanSupplier forming, LongSupplier nanoClock) {
+        this.applicationName = applicationName;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.maxIntervalNanos = Math.max(minIntervalNanos, TimeUnit.MILLISECONDS.toNanos(maxIntervalMillis));
+        this.forming = forming;
+        this.nanoClock = nanoClock;
+        this.intervalNanos = minIntervalNanos;
+    }
+
+    /**
+     * Resets the interval whenever a member joins or leaves the cluster of the instance. Registers once, later
+     * calls are ignored.
+     */
+    void registerWith(HazelcastInstance instance) {
+        if (registered.compareAndSet(false, true)) {
+            instance.getCluster().addMembershipListener(new MembershipListener() {
+                @Override
+                public void memberAdded(MembershipEvent membershipEvent) {
+                    requestFetch();
+                }
+
+                @Override
+                public void memberRemoved(MembershipEvent membershipEvent) {
+                    requestFetch();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return {@code true} if the next registry fetch should be sent to a Eureka server
+     */
+    synchronized boolean isFetchDue() {
+        return !fetched || fetchRequested || nanoClock.getAsLong() - lastFetchNanos >= intervalNanos
+                || forming.getAsBoolean();
+    }
+
+    /**
+     * Records a full registry fetch answered by a Eureka server.
+     */
+    synchronized void onRegistryFetched(Applications registry) {
+        appsHashCode = registry.getAppsHashCode();
+        onFetched(registry.getRegisteredApplications(applicationName));
+    }
+
+    /**
+     * Records a delta fetch answered by a Eureka server. Any instance of the Hazelcast application in the delta
+     * counts as a change.
+     */
+    synchronized void onDeltaFetched(Applications delta) {
+        appsHashCode = delta.getAppsHashCode();
+        Application application = delta.getRegisteredApplications(applicationName);
+        // the fingerprint is refreshed by the next full fetch
+        onFetched(application != null && !application.getInstancesAsIsFromEureka().isEmpty());
+    }
+
+    /**
+     * Records a fetch of the Hazelcast application answered by a Eureka server.
+     *
+     * @param application {@code null} if it is not registered
+     */
+    synchronized void onApplicationFetched(Application application) {
+        onFetched(application);
+    }
+
+    /**
+     * Makes the next registry fetch go to a Eureka server and resets the interval.
+     */
+    synchronized void requestFetch() {
+        fetchRequested = true;
+        intervalNanos = minIntervalNanos;
+    }
+
+    /**
+     * @return the hash code of the registry as of the last fetch answered by a Eureka server, {@code null} if
+     * none was
+     */
+    synchronized String getAppsHashCode() {
+        return appsHashCode;
+    }
+
+    synchronized long getIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
+    }
+
+    private void onFetched(Application application) {
+        long currentFingerprint = fingerprint(application);
+        boolean changed = !fetched || currentFingerprint != fingerprint;
+        fingerprint = currentFingerprint;
+        onFetched(changed);
+    }
+
+    private void onFetched(boolean changed) {
+        fetched = true;
+        fetchRequested = false;
+        lastFetchNanos = nanoClock.getAsLong();
+        intervalNanos = changed ? minIntervalNanos : Math.min(maxIntervalNanos, intervalNanos * 2);
+    }
+
+    /**
+     * @return a value changing with the instances of the application and their statuses, independent of their order
+     */
+    private static long fingerprint(Application application) {
+        if (application == null) {
+            return 0;
+        }
+        long fingerprint = 1;
+        for (InstanceInfo instance : application.getInstancesAsIsFromEureka()) {
+            fingerprint += Objects.hash(instance.getId(), instance.getStatus().ordinal());
+        }
+        return fingerprint;
+    }
+}
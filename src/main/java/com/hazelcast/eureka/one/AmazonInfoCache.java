@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.hazelcast.logging.ILogger;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.AmazonInfo.MetaDataKey;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link AmazonInfo} of the EC2 instance, cached in a local file so that a restarted member does not resolve it
+ * from the EC2 instance metadata service again.
+ * <p>
+ * A cached info is validated by reading only the instance id from the metadata service: it is used if it belongs
+ * to the instance. If the metadata service does not answer, it is only used if its private IP is bound to a local
+ * network interface, e.g. not when the cache file was copied from another instance. Once older than its time to
+ * live it is still used, and resolved again in the background. Every call to the metadata service is bounded by a
+ * connect and read timeout, and an IMDSv2 session token is used when the service provides one.
+ */
+final class AmazonInfoCache {
+
+    static final String DEFAULT_METADATA_URL = "http://169.254.169.254/latest/meta-data/";
+    static final int DEFAULT_TIMEOUT_MILLIS = 1000;
+
+    private static final String CACHED_AT = "cached-at";
+    private static final String TOKEN_TTL_SECONDS = "21600";
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+    private static final MetaDataKey[] KEYS = {
+            MetaDataKey.instanceId, MetaDataKey.amiId, MetaDataKey.instanceType, MetaDataKey.localIpv4,
+            MetaDataKey.localHostname, MetaDataKey.availabilityZone, MetaDataKey.publicHostname,
+            MetaDataKey.publicIpv4, MetaDataKey.mac};
+    /**
+     * Paths of the {@link #KEYS} below the metadata URL
+     */
+    private static final String[] PATHS = {
+            "instance-id", "ami-id", "instance-type", "local-ipv4", "local-hostname", "placement/availability-zone",
+            "public-hostname", "public-ipv4", "mac"};
+
+    private final Path cacheFile;
+    private final long ttlMillis;
+    private final String metadataUrl;
+    private final int timeoutMillis;
+    private final ILogger logger;
+    private final ThreadFactory threads;
+    private final LongSupplier clock;
+
+    AmazonInfoCache(Path cacheFile, long ttlMillis, ILogger logger, boolean virtualThreads) {
+        this(cacheFile, ttlMillis, DEFAULT_METADATA_URL, DEFAULT_TIMEOUT_MILLIS, logger,
+                DiscoveryThreads.newThreadFactory("hz-eureka-amazon-info", virtualThreads), System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    AmazonInfoCache(Path cacheFile, long ttlMillis, String metadataUrl, int timeoutMillis, ILogger logger,
+                    ThreadFactory threads, LongSupplier clock) {
+        this.cacheFile = cacheFile;
+        this.ttlMillis = ttlMillis;
+        this.metadataUrl = metadataUrl.endsWith("/") ? metadataUrl : metadataUrl + "/";
+        this.timeoutMillis = timeoutMillis;
+        this.logger = logger;
+        this.threads = threads;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached info if it is valid, otherwise the info resolved from the metadata service
+     * @throws IOException if there is no valid cached info and the metadata service does not answer
+     */
+    AmazonInfo load() throws IOException {
+        Properties cached = readCache();
+        if (cached != null) {
+            AmazonInfo info = toAmazonInfo(cached);
+            String instanceId = readInstanceId();
+            if (instanceId == null ? isBoundLocally(info.get(MetaDataKey.localIpv4)) : instanceId.equals(info.getId())) {
+                long ageMillis = clock.getAsLong() - Long.parseLong(cached.getProperty(CACHED_AT, "0"));
+                if (ageMillis >= ttlMillis) {
+                    threads.newThread(this::refreshQuietly).start();
+                }
+                return info;
+            }
+            if (instanceId == null) {
+                logger.info("Cached Amazon info " + cacheFile + " cannot be validated, its private IP "
+                        + info.get(MetaDataKey.localIpv4) + " is not bound locally, resolving it again");
+            } else {
+                logger.info("Cached Amazon info " + cacheFile + " belongs to instance " + info.getId()
+                        + " instead of " + instanceId + ", resolving it again");
+            }
+        }
+        return refresh();
+    }
+
+    private static boolean isBoundLocally(String localIpv4) {
+        if (localIpv4 == null) {
+            return false;
+        }
+        try {
+            return NetworkInterface.getByInetAddress(InetAddress.getByName(localIpv4)) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the info from the metadata service and caches it.
+     */
+    AmazonInfo refresh() throws IOException {
+        String token = readToken();
+        AmazonInfo.Builder builder = AmazonInfo.Builder.newBuilder();
+        Properties properties = new Properties();
+        for (int i = 0; i < KEYS.length; i++) {
+            String value = read(PATHS[i], token);
+            if (value != null) {
+                builder.addMetadata(KEYS[i], value);
+                properties.setProperty(KEYS[i].getName(), value);
+            }
+        }
+        if (properties.getProperty(MetaDataKey.instanceId.getName()) == null) {
+            throw new IOException("The metadata service " + metadataUrl + " has no instance id");
+        }
+        properties.setProperty(CACHED_AT, String.valueOf(clock.getAsLong()));
+        try {
+            writeCache(properties);
+        } catch (IOException e) {
+            logger.warning("Cannot write Amazon info cache " + cacheFile, e);
+        }
+        return builder.build();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Cannot refresh Amazon info cache " + cacheFile + " from " + metadataUrl, e);
+        }
+    }
+
+    /**
+     * @return {@code null} if the metadata service does not answer
+     */
+    private String readInstanceId() {
+        try {
+            return read(PATHS[0], readToken());
+        } catch (IOException e) {
+            logger.finest("Cannot read instance id from " + metadataUrl, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the IMDSv2 session token, {@code null} if the metadata service only supports IMDSv1
+     */
+    private String readToken() throws IOException {
+        HttpURLConnection connection = open(new URL(new URL(metadataUrl), "../api/token"));
+        try {
+            connection.setRequestMethod("PUT");
+            connection.setRequestProperty("X-aws-ec2-metadata-token-ttl-seconds", TOKEN_TTL_SECONDS);
+            return connection.getResponseCode() == OK ? readBody(connection) : null;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return {@code null} if the metadata is not available, e.g. the public IP of an instance without one
+     */
+    private String read(String path, String token) throws IOException {
+        HttpURLConnection connection = open(new URL(metadataUrl + path));
+        try {
+            if (token != null) {
+                connection.setRequestProperty("X-aws-ec2-metadata-token", token);
+            }
+            int statusCode = connection.getResponseCode();
+            if (statusCode == NOT_FOUND) {
+                return null;
+            }
+            if (statusCode != OK) {
+                throw new IOException("The metadata service answered " + statusCode + " for " + path);
+            }
+            return readBody(connection).trim();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private static String readBody(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            in.transferTo(body);
+            return body.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return {@code null} if there is no readable cache
+     */
+    private Properties readCache() {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(cacheFile)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warning("Cannot read Amazon info cache " + cacheFile, e);
+            return null;
+        }
+        return properties.getProperty(MetaDataKey.instanceId.getName()) == null ? null : properties;
+    }
+
+    private void writeCache(Properties properties) throws IOException {
+        Path parent = cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "Amazon info of the EC2 instance");
+            }
+            try {
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static AmazonInfo toAmazonInfo(Properties properties) {
+        AmazonInfo.Builder builder = AmazonInfo.Builder.newBuilder();
+        for (MetaDataKey key : KEYS) {
+            String value = properties.getProperty(key.getName());
+            if (value != null) {
+                builder.addMetadata(key, value);
+            }
+        }
+        return builder.build();
+    }
+}
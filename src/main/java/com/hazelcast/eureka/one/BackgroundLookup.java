@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * {@link Supplier} returning the result of the last completed run of a lookup which may block.
+ * <p>
+ * {@code Hazelcast.getAllHazelcastInstances()} waits until every instance being constructed has started.
+ * Discovery runs on the constructing thread while the instance joins its cluster, so such lookups must never
+ * run there. {@link #get()} never waits: it returns the previous result and makes sure a single thread of the
+ * given factory runs the lookup. The thread repeats the lookup at most every {@code refreshMillis} while callers keep
+ * asking for it, and stops once nobody asked since its last run, or when the lookup is {@link #stop() stopped}.
+ */
+final class BackgroundLookup<T> implements Supplier<T> {
+
+    private final Supplier<T> lookup;
+    private final ThreadFactory threads;
+    private final long refreshMillis;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean requested;
+    private volatile boolean stopped;
+    private volatile Thread thread;
+    private volatile T value;
+
+    BackgroundLookup(Supplier<T> lookup, T initialValue, ThreadFactory threads, long refreshMillis) {
+        this.lookup = lookup;
+        this.value = initialValue;
+        this.threads = threads;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @Override
+    public T get() {
+        if (stopped) {
+            return value;
+        }
+        requested = true;
+        if (running.compareAndSet(false, true)) {
+            Thread lookupThread = threads.newThread(this::run);
+            thread = lookupThread;
+            lookupThread.start();
+        }
+        return value;
+    }
+
+    /**
+     * Interrupts the running lookup, {@link #get()} only returns the last result afterwards.
+     */
+    void stop() {
+        stopped = true;
+        Thread lookupThread = thread;
+        if (lookupThread != null) {
+            lookupThread.interrupt();
+        }
+    }
+
+    private void run() {
+        do {
+            try {
+                while (requested && !stopped) {
+                    requested = false;
+                    refresh();
+                    TimeUnit.MILLISECONDS.sleep(refreshMillis);
+                }
+            } catch (InterruptedException e) {
+                running.set(false);
+                return;
+            }
+            running.set(false);
+            // a get() between the last check and the reset above did not start a thread
+        } while (requested && !stopped && running.compareAndSet(false, true));
+    }
+
+    private void refresh() {
+        try {
+            value = lookup.get();
+        } catch (RuntimeException ignored) {
+            // keep the previous result, the next run retries
+            return;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.AmazonInfo.MetaDataKey;
+import com.netflix.appinfo.CloudInstanceConfig;
+import com.netflix.appinfo.PropertiesInstanceConfig;
+
+/**
+ * Instance config of an EC2 instance whose {@link AmazonInfo} was resolved by the {@link AmazonInfoCache}, used
+ * instead of {@link CloudInstanceConfig}, which resolves it from the EC2 metadata service on every start.
+ * <p>
+ * Like {@link CloudInstanceConfig} the instance is registered with its public host name, or with its local host
+ * name when it has none. It is registered with its private IP address.
+ */
+final class CachedCloudInstanceConfig extends PropertiesInstanceConfig {
+
+    private final AmazonInfo amazonInfo;
+
+    CachedCloudInstanceConfig(String namespace, AmazonInfo amazonInfo) {
+        super(namespace, amazonInfo);
+        this.amazonInfo = amazonInfo;
+    }
+
+    @Override
+    public String getHostName(boolean refresh) {
+        String publicHostname = amazonInfo.get(MetaDataKey.publicHostname);
+        return publicHostname == null || publicHostname.isEmpty()
+                ? amazonInfo.get(MetaDataKey.localHostname)
+                : publicHostname;
+    }
+
+    @Override
+    public String getIpAddress() {
+        return amazonInfo.get(MetaDataKey.localIpv4);
+    }
+}
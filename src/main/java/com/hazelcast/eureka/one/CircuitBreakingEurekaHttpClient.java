@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.ILogger;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.TransportException;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link EurekaHttpClient} which short-circuits requests to a Eureka server whose
+ * {@link EndpointCircuitBreaker} is open. The rejection is reported as a {@link TransportException}
+ * so that Eureka's retrying client fails over to the next server immediately instead of waiting
+ * for the connect/read timeouts of the unavailable one.
+ * <p>
+ * Requests which a {@link RateLimitingEurekaHttpClient} inside of this one did not send are neither successes
+ * nor failures of the server.
+ */
+final class CircuitBreakingEurekaHttpClient extends EurekaHttpClientDecorator {
+
+    private static final int SERVER_ERROR = 500;
+
+    private final EndpointCircuitBreaker circuitBreaker;
+    private final EurekaHttpClient delegate;
+
+    CircuitBreakingEurekaHttpClient(EndpointCircuitBreaker circuitBreaker, EurekaHttpClient delegate) {
+        this.circuitBreaker = circuitBreaker;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates a decorator sharing one circuit breaker per Eureka server URL between all the clients
+     * created for that server.
+     */
+    static EndpointClientDecorator decorator(int failureThreshold, long openMillis, ILogger logger) {
+        ConcurrentMap<String, EndpointCircuitBreaker> breakers = new ConcurrentHashMap<>();
+        return (endpoint, client) -> new CircuitBreakingEurekaHttpClient(
+                breakers.computeIfAbsent(endpoint.getServiceUrl(),
+                        url -> new EndpointCircuitBreaker(url, failureThreshold, openMillis, logger)),
+                client);
+    }
+
+    @Override
+    protected <R> EurekaHttpResponse<R> execute(RequestExecutor<R> requestExecutor) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new TransportException("Circuit breaker is open for Eureka server " + circuitBreaker.getServiceUrl());
+        }
+
+        EurekaHttpResponse<R> response;
+        try {
+            response = requestExecutor.execute(delegate);
+        } catch (RateLimitedRequestException e) {
+            circuitBreaker.onNotSent();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        if (response.getStatusCode() >= SERVER_ERROR) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        return response;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
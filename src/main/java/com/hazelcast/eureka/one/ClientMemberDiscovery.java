@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the members of the cluster a Hazelcast client discovered through Eureka.
+ * <p>
+ * Once connected, a Hazelcast client receives the member list of its cluster. The members known to the
+ * running clients connected to the discovered cluster replace the nodes bootstrapped from Eureka, so a client
+ * only needs to go back to Eureka when none of the known members is reachable any more.
+ */
+final class ClientMemberDiscovery {
+
+    private static final long CLIENT_LOOKUP_REFRESH_MILLIS = 1000;
+
+    private final Supplier<Collection<HazelcastInstance>> clients;
+    private final Function<Collection<Address>, Set<Address>> probe;
+    private final Runnable stopLookup;
+    private volatile List<DiscoveryNode> knownNodes = Collections.emptyList();
+
+    ClientMemberDiscovery(int probeTimeoutMillis, boolean virtualThreads) {
+        this(new BackgroundLookup<>(HazelcastClient::getAllHazelcastClients, Collections.emptyList(),
+                        DiscoveryThreads.newThreadFactory("hz.eureka.client-lookup", virtualThreads),
+                        CLIENT_LOOKUP_REFRESH_MILLIS),
+                new ReachabilityProbe(probeTimeoutMillis));
+    }
+
+    private ClientMemberDiscovery(BackgroundLookup<Collection<HazelcastInstance>> clients,
+                                  Function<Collection<Address>, Set<Address>> probe) {
+        this(clients, probe, clients::stop);
+    }
+
+    @VisibleForTesting
+    ClientMemberDiscovery(Supplier<Collection<HazelcastInstance>> clients,
+                          Function<Collection<Address>, Set<Address>> probe) {
+        this(clients, probe, () -> { });
+    }
+
+    private ClientMemberDiscovery(Supplier<Collection<HazelcastInstance>> clients,
+                                  Function<Collection<Address>, Set<Address>> probe, Runnable stopLookup) {
+        this.clients = clients;
+        this.probe = probe;
+        this.stopLookup = stopLookup;
+    }
+
+    /**
+     * @return the known members which accept connections, empty if Eureka has to be queried
+     */
+    List<DiscoveryNode> getReachableMembers() {
+        List<DiscoveryNode> nodes = refreshKnownNodes();
+        if (nodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Address> addresses = new ArrayList<>(nodes.size());
+        for (DiscoveryNode node : nodes) {
+            addresses.add(node.getPrivateAddress());
+        }
+        // all members are probed at once, unreachable ones cost the probe timeout only once
+        Set<Address> reachableAddresses = probe.apply(addresses);
+        List<DiscoveryNode> reachable = new ArrayList<>();
+        for (DiscoveryNode node : nodes) {
+            if (reachableAddresses.contains(node.getPrivateAddress())) {
+                reachable.add(node);
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Stops looking up the running clients.
+     */
+    void stop() {
+        stopLookup.run();
+    }
+
+    /**
+     * Records the nodes bootstrapped from Eureka.
+     */
+    void onDiscovered(List<DiscoveryNode> nodes) {
+        knownNodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    private List<DiscoveryNode> refreshKnownNodes() {
+        Map<Address, DiscoveryNode> known = new LinkedHashMap<>();
+        for (DiscoveryNode node : knownNodes) {
+            known.put(node.getPrivateAddress(), node);
+        }
+        if (known.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Address, DiscoveryNode> members = new LinkedHashMap<>();
+        for (HazelcastInstance client : clients.get()) {
+            Set<Member> clusterMembers;
+            try {
+                clusterMembers = client.getCluster().getMembers();
+            } catch (RuntimeException e) {
+                // client is shutting down
+                continue;
+            }
+            if (clusterMembers.stream().noneMatch(member -> known.containsKey(member.getAddress()))) {
+                // connected to another cluster
+                continue;
+            }
+            for (Member member : clusterMembers) {
+                DiscoveryNode node = known.get(member.getAddress());
+                members.put(member.getAddress(), node != null ? node : new SimpleDiscoveryNode(member.getAddress()));
+            }
+        }
+        if (!members.isEmpty()) {
+            List<DiscoveryNode> nodes = Collections.unmodifiableList(new ArrayList<>(members.values()));
+            knownNodes = nodes;
+            return nodes;
+        }
+        return knownNodes;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bounded subset of the discovered members a Hazelcast client connects to, preferring members in the zone of
+ * the client and members serving few clients.
+ * <p>
+ * Members in the same zone rank first. Within each zone the members are sampled without replacement, weighted
+ * by the inverse of the number of clients they published (Efraimidis-Spirakis), so clients spread over the
+ * members instead of all connecting to the first ones listed by Eureka.
+ */
+final class ClientSubset {
+
+    private final String localZone;
+    private final int size;
+    private final DoubleSupplier random;
+
+    ClientSubset(String localZone, int size) {
+        this(localZone, size, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    ClientSubset(String localZone, int size, DoubleSupplier random) {
+        this.localZone = localZone;
+        this.size = size;
+        this.random = random;
+    }
+
+    /**
+     * @param instances Eureka instance of each node, by index of the node
+     */
+    List<DiscoveryNode> select(List<DiscoveryNode> nodes, List<InstanceInfo> instances) {
+        double[] keys = new double[nodes.size()];
+        for (int i = 0; i < keys.length; i++) {
+            // u^(1/w) with the weight w = 1 / (1 + clients)
+            keys[i] = Math.pow(random.getAsDouble(), 1 + getClientConnections(instances.get(i)));
+        }
+        return IntStream.range(0, nodes.size()).boxed()
+                .sorted(Comparator.comparing((Integer i) -> !isLocalZone(instances.get(i)))
+                        .thenComparing(i -> keys[i], Comparator.reverseOrder()))
+                .limit(size)
+                .map(nodes::get)
+                .collect(Collectors.toList());
+    }
+
+    private boolean isLocalZone(InstanceInfo instance) {
+        return localZone != null && localZone.equals(getZone(instance));
+    }
+
+    /**
+     * @return the {@value EurekaHazelcastMetadata#HAZELCAST_ZONE} metadata, otherwise the availability zone
+     * of an Amazon instance, {@code null} if unknown
+     */
+    static String getZone(InstanceInfo instance) {
+        String zone = instance.getMetadata().get(EurekaHazelcastMetadata.HAZELCAST_ZONE);
+        if (zone != null) {
+            return zone;
+        }
+        DataCenterInfo dataCenterInfo = instance.getDataCenterInfo();
+        if (dataCenterInfo instanceof AmazonInfo) {
+            return ((AmazonInfo) dataCenterInfo).get(AmazonInfo.MetaDataKey.availabilityZone);
+        }
+        return null;
+    }
+
+    private static int getClientConnections(InstanceInfo instance) {
+        String clientConnections = instance.getMetadata().get(EurekaHazelcastMetadata.HAZELCAST_CLIENT_CONNECTIONS);
+        if (clientConnections == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(clientConnections));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
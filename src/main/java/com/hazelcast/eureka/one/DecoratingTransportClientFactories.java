@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.base.Preconditions;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.discovery.shared.resolver.EurekaEndpoint;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.TransportClientFactory;
+import com.netflix.discovery.shared.transport.jersey.TransportClientFactories;
+import com.netflix.discovery.shared.transport.jersey3.Jersey3TransportClientFactories;
+import jakarta.ws.rs.client.ClientRequestFilter;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link TransportClientFactories} which applies {@link EndpointClientDecorator}s to every
+ * {@link EurekaHttpClient} created by the delegate factories, i.e. to both the registration
+ * (heartbeat) and the query (registry refresh) clients of each Eureka server.
+ */
+final class DecoratingTransportClientFactories extends Jersey3TransportClientFactories {
+
+    @SuppressWarnings("rawtypes")
+    private final TransportClientFactories delegate;
+    private final List<EndpointClientDecorator> decorators;
+
+    @SuppressWarnings("rawtypes")
+    DecoratingTransportClientFactories(TransportClientFactories delegate, List<EndpointClientDecorator> decorators) {
+        Preconditions.checkNotNull(delegate);
+        Preconditions.checkNotNull(decorators);
+
+        this.delegate = delegate;
+        this.decorators = decorators;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TransportClientFactory newTransportClientFactory(EurekaClientConfig clientConfig,
+                                                            Collection<ClientRequestFilter> additionalFilters,
+                                                            InstanceInfo myInstanceInfo) {
+        return decorate(delegate.newTransportClientFactory(clientConfig, additionalFilters, myInstanceInfo));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TransportClientFactory newTransportClientFactory(EurekaClientConfig clientConfig,
+                                                            Collection<ClientRequestFilter> additionalFilters,
+                                                            InstanceInfo myInstanceInfo,
+                                                            Optional<SSLContext> sslContext,
+                                                            Optional<HostnameVerifier> hostnameVerifier) {
+        return decorate(delegate.newTransportClientFactory(clientConfig, additionalFilters, myInstanceInfo,
+                sslContext, hostnameVerifier));
+    }
+
+    private TransportClientFactory decorate(TransportClientFactory factory) {
+        return new DecoratingTransportClientFactory(factory);
+    }
+
+    private final class DecoratingTransportClientFactory implements TransportClientFactory {
+
+        private final TransportClientFactory factory;
+
+        private DecoratingTransportClientFactory(TransportClientFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public EurekaHttpClient newClient(EurekaEndpoint serviceUrl) {
+            EurekaHttpClient client = factory.newClient(serviceUrl);
+            for (EndpointClientDecorator decorator : decorators) {
+                client = decorator.decorate(serviceUrl, client);
+            }
+            return client;
+        }
+
+        @Override
+        public void shutdown() {
+            factory.shutdown();
+        }
+    }
+}
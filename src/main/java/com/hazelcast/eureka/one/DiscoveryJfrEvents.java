@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the Eureka discovery strategy, in the {@code Hazelcast / Eureka} category.
+ * <p>
+ * While no recording is running, {@link Event#begin()} and {@link Event#commit()} are no-ops and the
+ * events are eliminated by the JIT, so the instrumentation costs nothing.
+ */
+final class DiscoveryJfrEvents {
+
+    private static final String HAZELCAST = "Hazelcast";
+    private static final String EUREKA = "Eureka";
+
+    private DiscoveryJfrEvents() {
+    }
+
+    @Name("com.hazelcast.eureka.DiscoverNodes")
+    @Label("Eureka Discover Nodes")
+    @Description("Invocation of the discoverNodes() method of the Eureka discovery strategy")
+    @Category({HAZELCAST, EUREKA})
+    static final class DiscoverNodes extends Event {
+
+        @Label("Application")
+        String application;
+
+        @Label("Eureka Instances")
+        @Description("Instances of the application in the Eureka registry, -1 if Eureka was not queried")
+        int eurekaInstances = -1;
+
+        @Label("Discovered Nodes")
+        int discoveredNodes;
+    }
+
+    @Name("com.hazelcast.eureka.AddressResolution")
+    @Label("Eureka Address Resolution")
+    @Description("Resolution of the address of a Eureka instance")
+    @Category({HAZELCAST, EUREKA})
+    static final class AddressResolution extends Event {
+
+        @Label("Host")
+        String host;
+
+        @Label("Resolved")
+        boolean resolved;
+    }
+
+    @Name("com.hazelcast.eureka.StatusChange")
+    @Label("Eureka Status Change")
+    @Description("Update of the Eureka status of the local instance")
+    @Category({HAZELCAST, EUREKA})
+    static final class StatusChange extends Event {
+
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Previous Status")
+        String previousStatus;
+
+        @Label("Status")
+        String status;
+    }
+
+    @Name("com.hazelcast.eureka.RegistrationVerification")
+    @Label("Eureka Registration Verification")
+    @Description("Wait until the application of the local instance is visible in the Eureka registry")
+    @Category({HAZELCAST, EUREKA})
+    static final class RegistrationVerification extends Event {
+
+        @Label("Application")
+        String application;
+
+        @Label("Attempts")
+        int attempts;
+    }
+
+    @Name("com.hazelcast.eureka.Shutdown")
+    @Label("Eureka Shutdown")
+    @Description("Shutdown of the Eureka discovery strategy")
+    @Category({HAZELCAST, EUREKA})
+    static final class Shutdown extends Event {
+
+        @Label("Application")
+        String application;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of the Eureka discovery strategy, registered as the {@value #DOMAIN}{@code :type=EurekaDiscovery}
+ * MBean of the member on the platform MBean server.
+ * <p>
+ * Recording only updates {@link LongAdder}s and atomic arrays, it never locks.
+ */
+final class DiscoveryMetrics implements DynamicMBean {
+
+    static final String DOMAIN = "com.hazelcast.eureka";
+
+    /**
+     * Bucket {@code 0} counts calls faster than 1 ms, bucket {@code i} calls taking
+     * {@code [2^(i-1), 2^i)} ms, the last bucket everything slower.
+     */
+    static final int LATENCY_BUCKETS = 16;
+
+    static final String LATENCY_HISTOGRAM = "discoverNodesLatency";
+
+    private static final FilterReason[] FILTER_REASONS = FilterReason.values();
+
+    private final LongAdder discoverNodesCount = new LongAdder();
+    private final LongAdder discoverNodesCoalesced = new LongAdder();
+    private final LongAdder discoverNodesTotalNanos = new LongAdder();
+    private final AtomicLongArray discoverNodesLatency = new AtomicLongArray(LATENCY_BUCKETS);
+    private final LongAdder instancesSeen = new LongAdder();
+    private final AtomicLongArray instances = new AtomicLongArray(FILTER_REASONS.length);
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder registrationVerificationAttempts = new LongAdder();
+    private final LongAdder staleResults = new LongAdder();
+    private final LongAdder unreachableNodes = new LongAdder();
+    private volatile long resultStalenessMillis;
+    private final Map<String, LongSupplier> attributes = new LinkedHashMap<>();
+    private final AtomicReference<ObjectName> objectName = new AtomicReference<>();
+
+    /**
+     * @param registryStalenessMillis time since the last successful registry fetch, negative if unknown
+     */
+    DiscoveryMetrics(LongSupplier registryStalenessMillis) {
+        attributes.put("discoverNodesCount", discoverNodesCount::sum);
+        attributes.put("discoverNodesTotalLatency", discoverNodesTotalNanos::sum);
+        attributes.put("discoverNodesCoalesced", discoverNodesCoalesced::sum);
+        attributes.put("instancesSeen", instancesSeen::sum);
+        for (FilterReason reason : FILTER_REASONS) {
+            attributes.put(reason.getMetricName(), () -> instances.get(reason.ordinal()));
+        }
+        attributes.put("registryStaleness", registryStalenessMillis);
+        attributes.put("discoveryRetries", retries::sum);
+        attributes.put("staleResults", staleResults::sum);
+        attributes.put("resultStaleness", () -> resultStalenessMillis);
+        attributes.put("unreachableNodes", unreachableNodes::sum);
+        attributes.put("registrationVerificationAttempts", registrationVerificationAttempts::sum);
+    }
+
+    void recordDiscoverNodes(long durationNanos) {
+        discoverNodesCount.increment();
+        discoverNodesTotalNanos.add(durationNanos);
+        discoverNodesLatency.incrementAndGet(latencyBucket(durationNanos));
+    }
+
+    /**
+     * Records a {@code discoverNodes()} call answered by a concurrent or recent call.
+     */
+    void recordCoalescedDiscoverNodes() {
+        discoverNodesCoalesced.increment();
+    }
+
+    void recordInstance(FilterReason reason) {
+        instancesSeen.increment();
+        instances.incrementAndGet(reason.ordinal());
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordRegistrationVerificationAttempt() {
+        registrationVerificationAttempts.increment();
+    }
+
+    /**
+     * Records that the last good nodes were returned because Eureka did not return the application.
+     */
+    void recordStaleResult(long ageMillis) {
+        staleResults.increment();
+        resultStalenessMillis = ageMillis;
+    }
+
+    void recordUnreachableNodes(int count) {
+        unreachableNodes.add(count);
+    }
+
+    void recordFreshResult() {
+        resultStalenessMillis = 0;
+    }
+
+    long getDiscoverNodesCount() {
+        return discoverNodesCount.sum();
+    }
+
+    long getDiscoverNodesCoalesced() {
+        return discoverNodesCoalesced.sum();
+    }
+
+    long getDiscoverNodesLatency(int bucket) {
+        return discoverNodesLatency.get(bucket);
+    }
+
+    long getInstancesSeen() {
+        return instancesSeen.sum();
+    }
+
+    long getInstances(FilterReason reason) {
+        return instances.get(reason.ordinal());
+    }
+
+    long getRetries() {
+        return retries.sum();
+    }
+
+    long getRegistrationVerificationAttempts() {
+        return registrationVerificationAttempts.sum();
+    }
+
+    long getStaleResults() {
+        return staleResults.sum();
+    }
+
+    long getUnreachableNodes() {
+        return unreachableNodes.sum();
+    }
+
+    long getResultStalenessMillis() {
+        return resultStalenessMillis;
+    }
+
+    static int latencyBucket(long durationNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros(millis);
+        return Math.min(bucket, LATENCY_BUCKETS - 1);
+    }
+
+    static ObjectName objectName(String member) throws JMException {
+        return new ObjectName(DOMAIN + ":type=EurekaDiscovery,member=" + ObjectName.quote(member));
+    }
+
+    /**
+     * Registers the metrics as the MBean of the member with the given address, once. A failed registration is
+     * not retried.
+     */
+    void registerAs(String member) throws JMException {
+        ObjectName name = objectName(member);
+        if (objectName.compareAndSet(null, name)) {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        }
+    }
+
+    void deregister() {
+        ObjectName name = objectName.getAndSet(null);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (name == null || !server.isRegistered(name)) {
+            return;
+        }
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException ignored) {
+            // unregistered concurrently
+            return;
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (LATENCY_HISTOGRAM.equals(attribute)) {
+            long[] histogram = new long[LATENCY_BUCKETS];
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                histogram[i] = discoverNodesLatency.get(i);
+            }
+            return histogram;
+        }
+        LongSupplier value = attributes.get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value.getAsLong();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException ignored) {
+                // skipped, as specified by DynamicMBean
+                continue;
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Eureka discovery metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList list) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("Eureka discovery metrics have no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] infos = new MBeanAttributeInfo[attributes.size() + 1];
+        int i = 0;
+        for (String name : attributes.keySet()) {
+            infos[i++] = new MBeanAttributeInfo(name, long.class.getName(), name, true, false, false);
+        }
+        infos[i] = new MBeanAttributeInfo(LATENCY_HISTOGRAM, long[].class.getName(),
+                "discoverNodes() calls per power-of-two millisecond bucket", true, false, false);
+        return new MBeanInfo(getClass().getName(), "Hazelcast Eureka discovery metrics", infos, null, null, null);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.InstanceInfo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Live state of the Eureka discovery strategy, as reported by {@link EurekaDiagnostics}.
+ * <p>
+ * The last registry fetch and the last used Eureka server are only known when the plugin creates
+ * the {@code EurekaClient} itself.
+ */
+final class DiscoveryState {
+
+    /**
+     * Outcome of mapping one Eureka instance during the last discovery.
+     */
+    static final class InstanceOutcome {
+
+        private final String instanceId;
+        private final String address;
+        private final FilterReason reason;
+
+        InstanceOutcome(String instanceId, String address, FilterReason reason) {
+            this.instanceId = instanceId;
+            this.address = address;
+            this.reason = reason;
+        }
+
+        String getInstanceId() {
+            return instanceId;
+        }
+
+        String getAddress() {
+            return address;
+        }
+
+        FilterReason getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return instanceId + " " + address + " " + reason;
+        }
+    }
+
+    private final String namespace;
+    private final Supplier<InstanceInfo> localInstance;
+
+    private volatile String eurekaServer;
+    private volatile long lastFetchTimeMillis = -1;
+    private volatile long lastFetchDurationMillis = -1;
+    private volatile int lastFetchStatusCode = -1;
+    private volatile long lastDiscoveryTimeMillis = -1;
+    private volatile List<InstanceOutcome> lastDiscovery = Collections.emptyList();
+
+    DiscoveryState(String namespace, Supplier<InstanceInfo> localInstance) {
+        this.namespace = namespace;
+        this.localInstance = localInstance;
+    }
+
+    void recordRequest(String serviceUrl) {
+        eurekaServer = serviceUrl;
+    }
+
+    /**
+     * @param statusCode HTTP status of the response, {@code -1} if the request failed
+     */
+    void recordFetch(long timeMillis, long durationMillis, int statusCode) {
+        lastFetchTimeMillis = timeMillis;
+        lastFetchDurationMillis = durationMillis;
+        lastFetchStatusCode = statusCode;
+    }
+
+    void recordDiscovery(long timeMillis, List<InstanceOutcome> outcomes) {
+        lastDiscoveryTimeMillis = timeMillis;
+        lastDiscovery = Collections.unmodifiableList(outcomes);
+    }
+
+    String getNamespace() {
+        return namespace;
+    }
+
+    InstanceInfo getLocalInstance() {
+        return localInstance.get();
+    }
+
+    String getEurekaServer() {
+        return eurekaServer;
+    }
+
+    long getLastFetchTimeMillis() {
+        return lastFetchTimeMillis;
+    }
+
+    long getLastFetchDurationMillis() {
+        return lastFetchDurationMillis;
+    }
+
+    int getLastFetchStatusCode() {
+        return lastFetchStatusCode;
+    }
+
+    long getLastDiscoveryTimeMillis() {
+        return lastDiscoveryTimeMillis;
+    }
+
+    List<InstanceOutcome> getLastDiscovery() {
+        return lastDiscovery;
+    }
+}
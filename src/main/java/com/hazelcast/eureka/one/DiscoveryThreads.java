@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.discovery.DiscoveryClient;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads of the background work of the plugin and of its {@link DiscoveryClient}s.
+ * <p>
+ * This work mostly waits for Eureka or for Hazelcast, so with many members and clients in a JVM it is cheaper on
+ * virtual threads than on platform threads. Virtual threads need Java 21 while the plugin is built for Java 17, so
+ * they are created reflectively and platform threads are used on older JVMs. Periodic work on virtual threads is
+ * timed by a single scheduler thread shared by the JVM.
+ */
+final class DiscoveryThreads {
+
+    private static final String[] DISCOVERY_CLIENT_EXECUTORS = {"heartbeatExecutor", "cacheRefreshExecutor"};
+    private static final String[] DISCOVERY_CLIENT_THREAD_NAMES = {
+            "DiscoveryClient-HeartbeatExecutor-", "DiscoveryClient-CacheRefreshExecutor-"};
+
+    /**
+     * {@code Thread.ofVirtual()}, {@code Thread.Builder.name(String, long)} and {@code Thread.Builder.factory()},
+     * {@code null} before Java 21
+     */
+    private static final Method[] VIRTUAL_THREAD_BUILDER = findVirtualThreadBuilder();
+
+    private DiscoveryThreads() {
+    }
+
+    private static final class SharedScheduler {
+
+        static final ScheduledThreadPoolExecutor INSTANCE = createScheduler();
+
+        private SharedScheduler() {
+        }
+
+        private static ScheduledThreadPoolExecutor createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                    newThreadFactory("hz-eureka-scheduler", false));
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_BUILDER != null;
+    }
+
+    /**
+     * @param virtual if virtual threads should be created, platform daemon threads are created if they are
+     *                not supported
+     */
+    static ThreadFactory newThreadFactory(String name, boolean virtual) {
+        if (virtual && isVirtualThreadSupported()) {
+            return newVirtualThreadFactory(name + "-");
+        }
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Makes the heartbeat and registry cache refresh executors of the client start virtual threads. Their
+     * threads are only started once the first heartbeat or refresh is due, so none was started yet right after
+     * the client was created.
+     *
+     * @return {@code false} if the executors of this Eureka version are unknown
+     */
+    static boolean useVirtualThreads(DiscoveryClient client) {
+        if (!isVirtualThreadSupported()) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < DISCOVERY_CLIENT_EXECUTORS.length; i++) {
+                Field field = DiscoveryClient.class.getDeclaredField(DISCOVERY_CLIENT_EXECUTORS[i]);
+                field.setAccessible(true);
+                Object executor = field.get(client);
+                // null if the client neither registers nor fetches the registry
+                if (executor instanceof ThreadPoolExecutor) {
+                    ((ThreadPoolExecutor) executor).setThreadFactory(
+                            newVirtualThreadFactory(DISCOVERY_CLIENT_THREAD_NAMES[i]));
+                }
+            }
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the task on a new thread of the factory after the delay, and again after the delay once it
+     * completed, until cancelled. The delays are timed by the scheduler shared by the JVM.
+     *
+     * @return cancels the task, a running task completes
+     */
+    static Runnable scheduleWithFixedDelay(Runnable task, long delayMillis, ThreadFactory threads) {
+        RepeatingTask repeatingTask = new RepeatingTask(task, delayMillis, threads);
+        repeatingTask.scheduleNext();
+        return repeatingTask::cancel;
+    }
+
+    private static final class RepeatingTask implements Runnable {
+
+        private final Runnable task;
+        private final long delayMillis;
+        private final ThreadFactory threads;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> next;
+
+        private RepeatingTask(Runnable task, long delayMillis, ThreadFactory threads) {
+            this.task = task;
+            this.delayMillis = delayMillis;
+            this.threads = threads;
+        }
+
+        void scheduleNext() {
+            if (!cancelled) {
+                next = SharedScheduler.INSTANCE.schedule(() -> threads.newThread(this).start(), delayMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!cancelled) {
+                    task.run();
+                }
+            } finally {
+                scheduleNext();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = next;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = VIRTUAL_THREAD_BUILDER[0].invoke(null);
+            builder = VIRTUAL_THREAD_BUILDER[1].invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) VIRTUAL_THREAD_BUILDER[2].invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual threads", e);
+        }
+    }
+
+    private static Method[] findVirtualThreadBuilder() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            return new Method[]{
+                    Thread.class.getMethod("ofVirtual"),
+                    builderClass.getMethod("name", String.class, long.class),
+                    builderClass.getMethod("factory")};
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.hazelcast.logging.ILogger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker guarding a single Eureka server URL.
+ * <p>
+ * The breaker opens after {@code failureThreshold} consecutive failures. While open, requests are
+ * rejected without touching the network. Once {@code openMillis} elapsed, a single trial request
+ * is let through (half-open); its outcome either closes the breaker or opens it again.
+ */
+final class EndpointCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String serviceUrl;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private final ILogger logger;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    EndpointCircuitBreaker(String serviceUrl, int failureThreshold, long openMillis, ILogger logger) {
+        this(serviceUrl, failureThreshold, openMillis, logger, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    EndpointCircuitBreaker(String serviceUrl, int failureThreshold, long openMillis, ILogger logger,
+                           LongSupplier nanoClock) {
+        this.serviceUrl = serviceUrl;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.logger = logger;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return {@code true} if a request may be sent to the guarded server
+     */
+    boolean tryAcquire() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return nanoClock.getAsLong() - openedAt >= openNanos
+                        && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+            default:
+                // a trial request is already in flight
+                return false;
+        }
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            logger.info("Eureka server " + serviceUrl + " is reachable again, closing circuit breaker");
+        }
+    }
+
+    void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            if (state.compareAndSet(current, State.OPEN)) {
+                openedAt = nanoClock.getAsLong();
+                logger.warning("Opening circuit breaker for Eureka server " + serviceUrl + " after "
+                        + failures + " consecutive failures");
+            }
+        }
+    }
+
+    /**
+     * A trial request which was not sent leaves the breaker open, the next request is the trial instead.
+     */
+    void onNotSent() {
+        state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    String getServiceUrl() {
+        return serviceUrl;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.ILogger;
+import com.netflix.appinfo.InstanceInfo;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Periodically writes the {@link DiscoveryState} of the Eureka discovery strategy into the log of the member:
+ * configuration, Eureka server in use, last registry fetch, local instance and the outcome of the last
+ * discovery per Eureka instance.
+ * <p>
+ * The Hazelcast diagnostics log cannot be extended from outside of Hazelcast, so the state is written with the
+ * logger of the strategy, on threads of the given factory.
+ */
+final class EurekaDiagnostics {
+
+    private final ILogger logger;
+    private final long periodMillis;
+    private final DiscoveryState state;
+    private final ThreadFactory threads;
+    private Runnable cancel;
+
+    EurekaDiagnostics(ILogger logger, long periodMillis, DiscoveryState state, ThreadFactory threads) {
+        this.logger = logger;
+        this.periodMillis = periodMillis;
+        this.state = state;
+        this.threads = threads;
+    }
+
+    DiscoveryState getState() {
+        return state;
+    }
+
+    /**
+     * Starts writing the state, once.
+     */
+    synchronized void start() {
+        if (cancel == null) {
+            cancel = DiscoveryThreads.scheduleWithFixedDelay(this::write, periodMillis, threads);
+        }
+    }
+
+    synchronized void stop() {
+        if (cancel != null) {
+            cancel.run();
+        }
+    }
+
+    private void write() {
+        try {
+            logger.info(format());
+        } catch (RuntimeException e) {
+            // keep writing the next periods
+            logger.warning("Cannot write the Eureka discovery state", e);
+        }
+    }
+
+    String format() {
+        StringBuilder sb = new StringBuilder("EurekaDiscovery[");
+        sb.append("namespace=").append(state.getNamespace());
+
+        InstanceInfo instance = state.getLocalInstance();
+        if (instance != null) {
+            sb.append(", appName=").append(instance.getAppName())
+              .append(", instanceId=").append(instance.getId())
+              .append(", status=").append(instance.getStatus());
+        }
+
+        sb.append(", eurekaServer=").append(state.getEurekaServer())
+          .append(", lastFetchTimeMillis=").append(state.getLastFetchTimeMillis())
+          .append(", lastFetchDurationMillis=").append(state.getLastFetchDurationMillis())
+          .append(", lastFetchStatusCode=").append(state.getLastFetchStatusCode())
+          .append(", lastDiscoveryTimeMillis=").append(state.getLastDiscoveryTimeMillis())
+          .append(']');
+
+        sb.append(System.lineSeparator()).append("LastDiscovery[");
+        for (DiscoveryState.InstanceOutcome outcome : state.getLastDiscovery()) {
+            sb.append(System.lineSeparator()).append("    ").append(outcome);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -23,6 +23,8 @@ final class EurekaHazelcastMetadata {
     static final String HAZELCAST_HOST = "hazelcast.host";
     static final String HAZELCAST_PORT = "hazelcast.port";
     static final String HAZELCAST_GROUP_NAME = "hazelcast.groupName";
+    static final String HAZELCAST_ZONE = "hazelcast.zone";
+    static final String HAZELCAST_CLIENT_CONNECTIONS = "hazelcast.clientConnections";
 
     private EurekaHazelcastMetadata() {
         // class with constants only
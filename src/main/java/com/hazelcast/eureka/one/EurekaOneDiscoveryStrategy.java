@@ -18,6 +18,7 @@ package com.hazelcast.eureka.one;
 import com.google.common.annotations.VisibleForTesting;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.properties.PropertyDefinition;
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.NoLogFactory;
 import com.hazelcast.cluster.Address;
@@ -30,33 +31,76 @@ import com.netflix.appinfo.CloudInstanceConfig;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.EurekaInstanceConfig;
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
 import com.netflix.appinfo.MyDataCenterInstanceConfig;
 import com.netflix.appinfo.providers.EurekaConfigBasedInstanceInfoProvider;
 import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.discovery.CacheRefreshedEvent;
 import com.netflix.discovery.DefaultEurekaClientConfig;
 import com.netflix.discovery.DiscoveryClient;
 import com.netflix.discovery.EurekaClient;
 import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.discovery.EurekaEvent;
+import com.netflix.discovery.Jersey3DiscoveryClientOptionalArgs;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.transport.jersey.TransportClientFactories;
 import com.netflix.discovery.shared.transport.jersey3.Jersey3TransportClientFactories;
 
+import javax.management.JMException;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.hazelcast.eureka.one.EurekaOneProperties.ADAPTIVE_REFRESH_MAX_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.ADAPTIVE_REFRESH_MIN_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.AMAZON_INFO_CACHE_FILE;
+import static com.hazelcast.eureka.one.EurekaOneProperties.AMAZON_INFO_CACHE_TTL_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.BACKUP_REGISTRY_SNAPSHOT_FILE;
+import static com.hazelcast.eureka.one.EurekaOneProperties.CIRCUIT_BREAKER_ENABLED;
+import static com.hazelcast.eureka.one.EurekaOneProperties.CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+import static com.hazelcast.eureka.one.EurekaOneProperties.CIRCUIT_BREAKER_OPEN_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.CLIENT_DISCOVERY_VIA_MEMBERS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.CLIENT_MEMBER_PROBE_TIMEOUT_MILLIS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.CLIENT_SUBSET_SIZE;
 import static com.hazelcast.eureka.one.EurekaOneProperties.DATACENTER;
+import static com.hazelcast.eureka.one.EurekaOneProperties.DIAGNOSTICS_PERIOD_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.DISCOVERY_MAX_STALENESS_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.DISCOVERY_RESULT_TTL_MILLIS;
 import static com.hazelcast.eureka.one.EurekaOneProperties.EUREKA_ONE_SYSTEM_PREFIX;
 import static com.hazelcast.eureka.one.EurekaOneProperties.HZ_PROPERTY_DEFINITIONS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.INSTANCE_ID_SUFFIX;
+import static com.hazelcast.eureka.one.EurekaOneProperties.MAX_LEASE_RENEWAL_AGE_SECONDS;
 import static com.hazelcast.eureka.one.EurekaOneProperties.NAME;
 import static com.hazelcast.eureka.one.EurekaOneProperties.NAMESPACE;
+import static com.hazelcast.eureka.one.EurekaOneProperties.PUBLISH_CLIENT_CONNECTIONS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REACHABILITY_PROBE_BUDGET_MILLIS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REACHABILITY_PROBE_DROP_UNREACHABLE;
+import static com.hazelcast.eureka.one.EurekaOneProperties.READ_ONLY_DISCOVERY;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REGISTRY_REPLICATION_ENABLED;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REGISTRY_REPLICATION_MAX_STALENESS_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REQUEST_RATE_BURST;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REQUEST_RATE_LIMIT;
+import static com.hazelcast.eureka.one.EurekaOneProperties.REQUEST_RATE_MAX_WAIT_MILLIS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.SCHEDULE_JITTER_SECONDS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.SEED_SUBSET_OLDEST_MEMBERS;
+import static com.hazelcast.eureka.one.EurekaOneProperties.SEED_SUBSET_SIZE;
 import static com.hazelcast.eureka.one.EurekaOneProperties.SELF_REGISTRATION;
 import static com.hazelcast.eureka.one.EurekaOneProperties.SKIP_EUREKA_REGISTRATION_VERIFICATION;
+import static com.hazelcast.eureka.one.EurekaOneProperties.STABLE_INSTANCE_ID;
+import static com.hazelcast.eureka.one.EurekaOneProperties.TRAFFIC_RECORDING_FILE;
 import static com.hazelcast.eureka.one.EurekaOneProperties.USE_CLASSPATH_EUREKA_CLIENT_PROPS;
 import static com.hazelcast.eureka.one.EurekaOneProperties.USE_METADATA_FOR_HOST_AND_PORT;
+import static com.hazelcast.eureka.one.EurekaOneProperties.VIRTUAL_THREADS_ENABLED;
 
 final class EurekaOneDiscoveryStrategy
         extends AbstractDiscoveryStrategy {
@@ -136,16 +180,110 @@ final class EurekaOneDiscoveryStrategy
     static final int NUM_RETRIES = 5;
     private static final int VERIFICATION_WAIT_TIMEOUT = 5;
     private static final int DISCOVERY_RETRY_TIMEOUT = 1;
-
+    private static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 3;
+    private static final int DEFAULT_CIRCUIT_BREAKER_OPEN_SECONDS = 30;
+    private static final int DEFAULT_REQUEST_RATE_MAX_WAIT_MILLIS = 5000;
+    private static final int DEFAULT_REGISTRY_REPLICATION_MAX_STALENESS_SECONDS = 90;
+    private static final int DEFAULT_CLIENT_MEMBER_PROBE_TIMEOUT_MILLIS = 1000;
+    private static final int DEFAULT_DIAGNOSTICS_PERIOD_SECONDS = 0;
+    private static final int DEFAULT_DISCOVERY_MAX_STALENESS_SECONDS = 300;
+    private static final int DEFAULT_SEED_SUBSET_OLDEST_MEMBERS = 3;
+    private static final int DEFAULT_DISCOVERY_RESULT_TTL_MILLIS = 0;
+    private static final int DEFAULT_ADAPTIVE_REFRESH_MAX_SECONDS = 120;
+    private static final int DEFAULT_AMAZON_INFO_CACHE_TTL_SECONDS = 3600;
+
+    /**
+     * {@code null} when the client is only created while bootstrapping a Hazelcast client
+     */
     private final EurekaClient eurekaClient;
+    private final TransportClientFactories clientFactories;
     private final String groupName;
+    /**
+     * {@code null} when discovering in read-only mode
+     */
     private final ApplicationInfoManager applicationInfoManager;
+    private final boolean readOnly;
+    /**
+     * {@code null} unless discovering in read-only mode, or when the client is only created while bootstrapping
+     * a Hazelcast client
+     */
+    private final ReadOnlyDiscoveryClient readOnlyClient;
+    /**
+     * {@code null} unless discovering in read-only mode
+     */
+    private final String readOnlyApplicationName;
 
     private final Boolean useClasspathEurekaClientProps;
     private final String namespace;
     private StatusChangeStrategy statusChangeStrategy;
     private final Boolean skipEurekaRegistrationVerification;
     private final Boolean useMetadataForHostAndPort;
+    private final Path backupRegistrySnapshotFile;
+    /**
+     * Last snapshot written to {@link #backupRegistrySnapshotFile}, {@code null} before the first one
+     */
+    private volatile byte[] lastRegistrySnapshot;
+    /**
+     * {@code null} for Hazelcast clients and for members which use none of the features needing their instance
+     */
+    private final LocalHazelcastInstance localInstance;
+    /**
+     * Address the metrics MBean of a member is registered under, {@code null} for Hazelcast clients
+     */
+    private final Address metricsAddress;
+    /**
+     * {@code null} when disabled
+     */
+    private final TrafficRecording.Writer trafficRecording;
+    private final RegistryReplicator registryReplicator;
+    /**
+     * {@code null} when disabled
+     */
+    private final AdaptiveRefreshInterval adaptiveRefresh;
+    private final ClientMemberDiscovery clientMemberDiscovery;
+    private final DiscoveryMetrics metrics = new DiscoveryMetrics(this::getRegistryStalenessMillis);
+    /**
+     * {@code null} for Hazelcast clients or when disabled
+     */
+    private final EurekaDiagnostics diagnostics;
+    private final boolean virtualThreads = isVirtualThreadsEnabled();
+    private final int scheduleJitterSeconds = Math.max(0, getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, SCHEDULE_JITTER_SECONDS, 0));
+    /**
+     * Drawn once, the timers of the {@code DiscoveryClient} keep their period
+     */
+    private final int registrationJitterSeconds = ThreadLocalRandom.current().nextInt(scheduleJitterSeconds + 1);
+    private final int refreshJitterSeconds = ThreadLocalRandom.current().nextInt(scheduleJitterSeconds + 1);
+    /**
+     * {@code null} when disabled
+     */
+    private final LastGoodDiscoveryResult lastGoodResult = createLastGoodDiscoveryResult();
+    /**
+     * Set by {@link #destroy()}, no Eureka client is created and no lookup is started afterwards
+     */
+    private volatile boolean destroyed;
+    /**
+     * Shares unmodifiable copies, empty results are not reused so nodes appearing in Eureka are found at once
+     */
+    private final SingleFlight<List<DiscoveryNode>> discovery = new SingleFlight<>(
+            () -> Collections.unmodifiableList(new ArrayList<>(computeDiscoverNodes())), Collections.emptyList(),
+            getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, DISCOVERY_RESULT_TTL_MILLIS, DEFAULT_DISCOVERY_RESULT_TTL_MILLIS),
+            nodes -> !nodes.isEmpty(), metrics::recordCoalescedDiscoverNodes);
+    /**
+     * {@code null} for Hazelcast clients or when disabled
+     */
+    private final SeedSubset seedSubset;
+    /**
+     * {@code null} for members or when disabled
+     */
+    private final ClientSubset clientSubset;
+    private final boolean publishClientConnections;
+    private final long maxLeaseRenewalAgeMillis = TimeUnit.SECONDS.toMillis(
+            getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, MAX_LEASE_RENEWAL_AGE_SECONDS, 0));
+    /**
+     * {@code null} when disabled
+     */
+    private final Function<Collection<Address>, Set<Address>> reachabilityProbe = createReachabilityProbe();
+    private final boolean dropUnreachable = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REACHABILITY_PROBE_DROP_UNREACHABLE, false);
 
     private EurekaOneDiscoveryStrategy(final EurekaOneDiscoveryStrategyBuilder builder) {
         super(builder.logger, builder.properties);
@@ -157,6 +295,8 @@ final class EurekaOneDiscoveryStrategy
                 getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, SKIP_EUREKA_REGISTRATION_VERIFICATION, false);
         this.useClasspathEurekaClientProps = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, USE_CLASSPATH_EUREKA_CLIENT_PROPS, true);
         this.groupName = builder.groupName != null ? builder.groupName : Config.DEFAULT_CLUSTER_NAME;
+        this.backupRegistrySnapshotFile = getBackupRegistrySnapshotFile();
+        this.trafficRecording = createTrafficRecording();
 
         // override registration if requested
         if (!selfRegistration && !useMetadataForHostAndPort) {
@@ -167,33 +307,414 @@ final class EurekaOneDiscoveryStrategy
             this.statusChangeStrategy = builder.changeStrategy;
         }
 
-        if (builder.applicationInfoManager == null) {
+        this.readOnly = builder.applicationInfoManager == null && !statusChangeStrategy.shouldRegister()
+                && getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, READ_ONLY_DISCOVERY, false);
+        if (readOnly) {
+            this.applicationInfoManager = null;
+        } else if (builder.applicationInfoManager == null) {
             this.applicationInfoManager = initializeApplicationInfoManager(builder.discoveryNode);
         } else {
             this.applicationInfoManager = builder.applicationInfoManager;
         }
+        this.readOnlyApplicationName = readOnly ? getReadOnlyApplicationName() : null;
+        this.localInstance = needsLocalInstance(builder.discoveryNode) ? new LocalHazelcastInstance(virtualThreads) : null;
+        this.metricsAddress = builder.discoveryNode == null ? null : builder.discoveryNode.getPrivateAddress();
+        this.registryReplicator = createRegistryReplicator();
+        this.adaptiveRefresh = createAdaptiveRefreshInterval();
+        this.clientMemberDiscovery = createClientMemberDiscovery(builder.discoveryNode);
+        this.diagnostics = createDiagnostics(builder.discoveryNode);
+        this.seedSubset = createSeedSubset(builder.discoveryNode);
+        this.clientSubset = createClientSubset(builder.discoveryNode);
+        this.publishClientConnections = localInstance != null && !readOnly
+                && getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, PUBLISH_CLIENT_CONNECTIONS, false);
+        this.clientFactories = builder.clientFactories;
+        this.eurekaClient = initializeEurekaClient(builder.eurekaClient);
+        this.readOnlyClient = initializeReadOnlyClient();
+    }
 
-        if (builder.eurekaClient == null) {
-            EurekaClientConfig eurekaClientConfig;
-            if (useClasspathEurekaClientProps) {
-                eurekaClientConfig = new EurekaOneAwareConfig(this.namespace);
-            } else {
-                eurekaClientConfig = new PropertyBasedEurekaClientConfig(
-                        this.namespace,
-                        getEurekaClientProperties(this.namespace, this.getProperties()));
+    /**
+     * Looking up the local member publishes a token in its attributes and polls the Hazelcast instances of the
+     * JVM, so it is only done by members using a feature which needs their instance. Hazelcast clients have no
+     * local member.
+     */
+    private boolean needsLocalInstance(DiscoveryNode localNode) {
+        if (localNode == null) {
+            return false;
+        }
+        if (!readOnly && (getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REGISTRY_REPLICATION_ENABLED, false)
+                || getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, PUBLISH_CLIENT_CONNECTIONS, false))) {
+            return true;
+        }
+        return getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, SEED_SUBSET_SIZE, 0) > 0
+                || getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, ADAPTIVE_REFRESH_MIN_SECONDS, 0) > 0;
+    }
+
+    private EurekaClient initializeEurekaClient(EurekaClient configured) {
+        if (configured != null) {
+            return configured;
+        }
+        if (clientMemberDiscovery != null || readOnly) {
+            // created on demand, see getApplication(), or replaced by the read-only client
+            return null;
+        }
+        return createEurekaClient(clientFactories);
+    }
+
+    private ReadOnlyDiscoveryClient initializeReadOnlyClient() {
+        if (!readOnly || clientMemberDiscovery != null) {
+            return null;
+        }
+        ReadOnlyDiscoveryClient client = createReadOnlyClient(clientFactories);
+        client.start();
+        return client;
+    }
+
+    private EurekaClient createEurekaClient(TransportClientFactories clientFactories) {
+        EurekaClientConfig eurekaClientConfig = createEurekaClientConfig();
+        TransportClientFactories factories = decorate(clientFactories);
+        Jersey3DiscoveryClientOptionalArgs args = new Jersey3DiscoveryClientOptionalArgs();
+        AtomicReference<DiscoveryClient> created = new AtomicReference<>();
+        AtomicBoolean refreshedWhileCreated = new AtomicBoolean();
+        if (backupRegistrySnapshotFile != null || registryReplicator != null || publishClientConnections) {
+            // listening from the start, the constructor already fetches the registry
+            args.setEventListeners(Collections.singleton(event -> {
+                DiscoveryClient client = created.get();
+                if (client != null) {
+                    onEurekaEvent(client, event);
+                } else if (event instanceof CacheRefreshedEvent) {
+                    refreshedWhileCreated.set(true);
+                }
+            }));
+        }
+        DiscoveryClient client = SnapshotBackupRegistry.withSnapshotFile(backupRegistrySnapshotFile,
+                () -> new DiscoveryClient(applicationInfoManager, eurekaClientConfig, factories, args));
+        created.set(client);
+        if (virtualThreads && !DiscoveryThreads.useVirtualThreads(client)) {
+            getLogger().warning("Cannot run the Eureka heartbeats and registry refreshes on virtual threads");
+        }
+        if (refreshedWhileCreated.get()) {
+            onEurekaEvent(client, new CacheRefreshedEvent());
+        }
+        return client;
+    }
+
+    /**
+     * Neither registers nor fetches the full registry, the backup registry snapshot is read by
+     * {@link #getReadOnlyApplication(ReadOnlyDiscoveryClient)} instead.
+     */
+    private ReadOnlyDiscoveryClient createReadOnlyClient(TransportClientFactories clientFactories) {
+        return new ReadOnlyDiscoveryClient(createEurekaClientConfig(), decorate(clientFactories),
+                readOnlyApplicationName, this::onReadOnlyRefresh, getLogger(), virtualThreads);
+    }
+
+    private EurekaClientConfig createEurekaClientConfig() {
+        if (useClasspathEurekaClientProps) {
+            return new EurekaOneAwareConfig(this.namespace);
+        }
+        return new EurekaOneAwarePropertyBasedConfig(this.namespace,
+                getEurekaClientProperties(this.namespace, this.getProperties()));
+    }
+
+    private TransportClientFactories decorate(TransportClientFactories clientFactories) {
+        TransportClientFactories factories =
+                Objects.requireNonNullElse(clientFactories, Jersey3TransportClientFactories.getInstance());
+        List<EndpointClientDecorator> decorators = getEndpointClientDecorators();
+        if (!decorators.isEmpty()) {
+            factories = new DecoratingTransportClientFactories(factories, decorators);
+        }
+        return factories;
+    }
+
+    private void onReadOnlyRefresh(Application application) {
+        registerWithLocalInstance();
+        if (backupRegistrySnapshotFile != null) {
+            writeRegistrySnapshot(application);
+        }
+    }
+
+    private void onEurekaEvent(EurekaClient client, EurekaEvent event) {
+        if (!(event instanceof CacheRefreshedEvent)) {
+            return;
+        }
+        registerWithLocalInstance();
+        if (publishClientConnections) {
+            publishClientConnections();
+        }
+        Application application = client.getApplication(getApplicationName());
+        if (application == null) {
+            return;
+        }
+        if (backupRegistrySnapshotFile != null) {
+            writeRegistrySnapshot(application);
+        }
+        if (registryReplicator != null) {
+            registryReplicator.publish(application);
+        }
+    }
+
+    private void publishClientConnections() {
+        HazelcastInstance instance = localInstance.get();
+        if (instance == null) {
+            return;
+        }
+        String clientConnections = String.valueOf(instance.getClientService().getConnectedClients().size());
+        Map<String, String> metadata = applicationInfoManager.getInfo().getMetadata();
+        if (!clientConnections.equals(metadata.get(EurekaHazelcastMetadata.HAZELCAST_CLIENT_CONNECTIONS))) {
+            // sent to Eureka by the next instance info replication
+            applicationInfoManager.registerAppMetadata(
+                    Collections.singletonMap(EurekaHazelcastMetadata.HAZELCAST_CLIENT_CONNECTIONS, clientConnections));
+        }
+    }
+
+    /**
+     * Writes the snapshot unless it did not change since the last one written.
+     */
+    private void writeRegistrySnapshot(Application application) {
+        try {
+            byte[] snapshot = RegistrySnapshot.toBytes(application);
+            if (Arrays.equals(snapshot, lastRegistrySnapshot)) {
+                return;
             }
-            this.eurekaClient = new DiscoveryClient(applicationInfoManager, eurekaClientConfig,
-                    Objects.requireNonNullElse(builder.clientFactories, Jersey3TransportClientFactories.getInstance()));
-        } else {
-            this.eurekaClient = builder.eurekaClient;
+            RegistrySnapshot.writeTo(backupRegistrySnapshotFile, snapshot);
+            lastRegistrySnapshot = snapshot;
+        } catch (IOException e) {
+            getLogger().warning("Cannot write registry snapshot " + backupRegistrySnapshotFile, e);
         }
     }
 
+    /**
+     * @return the last snapshot, {@code null} if there is none
+     */
+    private Application readRegistrySnapshot() {
+        try {
+            return RegistrySnapshot.readFrom(backupRegistrySnapshotFile);
+        } catch (IOException e) {
+            getLogger().finest("Cannot read registry snapshot " + backupRegistrySnapshotFile, e);
+            return null;
+        }
+    }
+
+    private Path getBackupRegistrySnapshotFile() {
+        String snapshotFile = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, BACKUP_REGISTRY_SNAPSHOT_FILE, null);
+        return snapshotFile == null ? null : Paths.get(snapshotFile);
+    }
+
+    private boolean isVirtualThreadsEnabled() {
+        if (!getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, VIRTUAL_THREADS_ENABLED, false)) {
+            return false;
+        }
+        if (!DiscoveryThreads.isVirtualThreadSupported()) {
+            getLogger().warning("Virtual threads require Java 21 or later, using platform threads");
+            return false;
+        }
+        return true;
+    }
+
+    private TrafficRecording.Writer createTrafficRecording() {
+        String recordingFile = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, TRAFFIC_RECORDING_FILE, null);
+        return recordingFile == null ? null : new TrafficRecording.Writer(Paths.get(recordingFile), getLogger(),
+                DiscoveryThreads.newThreadFactory("hz.eureka.traffic-recording", virtualThreads));
+    }
+
+    /**
+     * Registry replication is only available to members, Hazelcast clients keep polling Eureka themselves.
+     */
+    private RegistryReplicator createRegistryReplicator() {
+        if (localInstance == null || readOnly || !getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REGISTRY_REPLICATION_ENABLED, false)) {
+            return null;
+        }
+        int maxStalenessSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REGISTRY_REPLICATION_MAX_STALENESS_SECONDS,
+                DEFAULT_REGISTRY_REPLICATION_MAX_STALENESS_SECONDS);
+        return new RegistryReplicator(localInstance,
+                getApplicationName(),
+                TimeUnit.SECONDS.toMillis(maxStalenessSeconds), getLogger());
+    }
+
+    /**
+     * Members are still forming their cluster until their Hazelcast instance is available. The registry kept
+     * between two adaptive refreshes carries old lease renewals, so it is not used when they are checked.
+     */
+    private AdaptiveRefreshInterval createAdaptiveRefreshInterval() {
+        int minSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, ADAPTIVE_REFRESH_MIN_SECONDS, 0);
+        if (minSeconds <= 0) {
+            return null;
+        }
+        if (maxLeaseRenewalAgeMillis > 0) {
+            getLogger().warning("adaptive-refresh-min-seconds is ignored, max-lease-renewal-age-seconds needs "
+                    + "the registry to be fetched in full on every refresh");
+            return null;
+        }
+        int maxSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, ADAPTIVE_REFRESH_MAX_SECONDS,
+                DEFAULT_ADAPTIVE_REFRESH_MAX_SECONDS);
+        return new AdaptiveRefreshInterval(getApplicationName(), TimeUnit.SECONDS.toMillis(minSeconds),
+                TimeUnit.SECONDS.toMillis(maxSeconds), () -> localInstance != null && localInstance.get() == null);
+    }
+
+    /**
+     * With an adaptive refresh interval the registry is refreshed every minimum interval, see
+     * {@link AdaptiveRefreshEurekaHttpClient}. The jitter spreads the refreshes of members started together.
+     */
+    private int getRegistryFetchIntervalSeconds(int configured) {
+        int intervalSeconds = adaptiveRefresh == null
+                ? configured
+                : getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, ADAPTIVE_REFRESH_MIN_SECONDS, 0);
+        return intervalSeconds + refreshJitterSeconds;
+    }
+
+    /**
+     * Lease renewals are not part of the registry delta, so the renewal timestamps are only current when every
+     * refresh fetches the full registry.
+     */
+    private boolean shouldDisableDelta(boolean configured) {
+        return configured || maxLeaseRenewalAgeMillis > 0;
+    }
+
+    /**
+     * The bundled {@link SnapshotBackupRegistry} is used when a snapshot file is configured, unless
+     * a backup registry implementation is configured explicitly.
+     */
+    private String getBackupRegistryImpl(String configured) {
+        if (configured == null && backupRegistrySnapshotFile != null) {
+            return SnapshotBackupRegistry.class.getName();
+        }
+        return configured;
+    }
+
+    /**
+     * Discovery via the connected cluster is only available to Hazelcast clients.
+     */
+    private ClientMemberDiscovery createClientMemberDiscovery(DiscoveryNode localNode) {
+        if (localNode != null || !getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, CLIENT_DISCOVERY_VIA_MEMBERS, false)) {
+            return null;
+        }
+        return new ClientMemberDiscovery(getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, CLIENT_MEMBER_PROBE_TIMEOUT_MILLIS,
+                DEFAULT_CLIENT_MEMBER_PROBE_TIMEOUT_MILLIS), virtualThreads);
+    }
+
+    /**
+     * Diagnostics are only available to members.
+     */
+    private EurekaDiagnostics createDiagnostics(DiscoveryNode localNode) {
+        int periodSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, DIAGNOSTICS_PERIOD_SECONDS,
+                DEFAULT_DIAGNOSTICS_PERIOD_SECONDS);
+        if (localNode == null || periodSeconds <= 0) {
+            return null;
+        }
+        return new EurekaDiagnostics(getLogger(), TimeUnit.SECONDS.toMillis(periodSeconds),
+                new DiscoveryState(namespace, () -> applicationInfoManager == null ? null : applicationInfoManager.getInfo()),
+                DiscoveryThreads.newThreadFactory("hz.eureka.diagnostics", virtualThreads));
+    }
+
+    /**
+     * The seed subset only bounds the members a member joins through, Hazelcast clients get every member.
+     */
+    private SeedSubset createSeedSubset(DiscoveryNode localNode) {
+        int size = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, SEED_SUBSET_SIZE, 0);
+        if (localNode == null || size <= 0) {
+            return null;
+        }
+        int oldestMembers = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, SEED_SUBSET_OLDEST_MEMBERS,
+                DEFAULT_SEED_SUBSET_OLDEST_MEMBERS);
+        // the local instance is found once it started, i.e. after its initial join
+        return new SeedSubset(localNode.getPrivateAddress().toString(), size, oldestMembers,
+                () -> localInstance.get() != null);
+    }
+
+    private ClientSubset createClientSubset(DiscoveryNode localNode) {
+        int size = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, CLIENT_SUBSET_SIZE, 0);
+        if (localNode != null || size <= 0) {
+            return null;
+        }
+        String zone = readOnly ? getReadOnlyZone() : ClientSubset.getZone(applicationInfoManager.getInfo());
+        return new ClientSubset(zone, size);
+    }
+
+    private Function<Collection<Address>, Set<Address>> createReachabilityProbe() {
+        int budgetMillis = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REACHABILITY_PROBE_BUDGET_MILLIS, 0);
+        return budgetMillis <= 0 ? null : new ReachabilityProbe(budgetMillis);
+    }
+
+    private LastGoodDiscoveryResult createLastGoodDiscoveryResult() {
+        int maxStalenessSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, DISCOVERY_MAX_STALENESS_SECONDS,
+                DEFAULT_DISCOVERY_MAX_STALENESS_SECONDS);
+        return maxStalenessSeconds <= 0 ? null : new LastGoodDiscoveryResult(TimeUnit.SECONDS.toMillis(maxStalenessSeconds),
+                virtualThreads);
+    }
+
+    private List<EndpointClientDecorator> getEndpointClientDecorators() {
+        List<EndpointClientDecorator> decorators = new ArrayList<>();
+        if (diagnostics != null) {
+            // innermost, only requests actually sent to a Eureka server are tracked
+            decorators.add(StateTrackingEurekaHttpClient.decorator(diagnostics.getState()));
+        }
+        int rateLimit = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REQUEST_RATE_LIMIT, 0);
+        if (rateLimit > 0) {
+            // inside of the circuit breaker, rejected requests do not take a token and the requests which are
+            // not sent do not count as failures of the server
+            int burst = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, REQUEST_RATE_BURST, rateLimit);
+            long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(getOrDefault(EUREKA_ONE_SYSTEM_PREFIX,
+                    REQUEST_RATE_MAX_WAIT_MILLIS, DEFAULT_REQUEST_RATE_MAX_WAIT_MILLIS));
+            decorators.add(RateLimitingEurekaHttpClient.decorator(
+                    EurekaRequestRateLimiter.shared(rateLimit, burst, maxWaitNanos)));
+        }
+        if (getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, CIRCUIT_BREAKER_ENABLED, false)) {
+            int failureThreshold = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                    DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+            int openSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, CIRCUIT_BREAKER_OPEN_SECONDS,
+                    DEFAULT_CIRCUIT_BREAKER_OPEN_SECONDS);
+            decorators.add(CircuitBreakingEurekaHttpClient.decorator(failureThreshold,
+                    TimeUnit.SECONDS.toMillis(openSeconds), getLogger()));
+        }
+        if (adaptiveRefresh != null) {
+            // inside of the replicated registry, only the refreshes sent to a Eureka server adapt the interval
+            decorators.add(AdaptiveRefreshEurekaHttpClient.decorator(adaptiveRefresh));
+        }
+        if (registryReplicator != null) {
+            // outside of the others, refreshes answered from the replicated registry never reach a Eureka server
+            decorators.add(ReplicatedRegistryEurekaHttpClient.decorator(registryReplicator));
+        }
+        if (trafficRecording != null) {
+            // outermost, records exactly what the DiscoveryClient receives
+            decorators.add(RecordingEurekaHttpClient.decorator(trafficRecording));
+        }
+        return decorators;
+    }
+
     private String getAppname() {
         Comparable name = this.getProperties().get(NAME.key());
         return name == null ? "unknown" : name.toString();
     }
 
+    private String getApplicationName() {
+        return readOnly ? readOnlyApplicationName : applicationInfoManager.getEurekaInstanceConfig().getAppname();
+    }
+
+    /**
+     * The application name of the instance config, without building the instance config.
+     */
+    private String getReadOnlyApplicationName() {
+        if (!useClasspathEurekaClientProps) {
+            return getAppname();
+        }
+        String key = String.format("%s.name", this.namespace);
+        try {
+            String name = loadEurekaClientProperties().getProperty(key, "unknown");
+            return DynamicPropertyFactory.getInstance().getStringProperty(key, name).get();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the Eureka application name", e);
+        }
+    }
+
+    /**
+     * Without an instance config there is no <code>hazelcast.zone</code> metadata, the zone is the first
+     * availability zone of the Eureka client region instead.
+     */
+    private String getReadOnlyZone() {
+        EurekaClientConfig config = createEurekaClientConfig();
+        String[] zones = config.getAvailabilityZones(config.getRegion());
+        return zones.length == 0 ? null : zones[0];
+    }
+
     private Map<String, Object> getEurekaClientProperties(String namespace, Map<String, Comparable> properties) {
         Map<String, Object> result = new HashMap<>();
         for (Map.Entry<String, Comparable> e : properties.entrySet()) {
@@ -210,27 +731,17 @@ final class EurekaOneDiscoveryStrategy
 
         InstanceInfo instanceInfo = new EurekaConfigBasedInstanceInfoProvider(instanceConfig).get();
         ApplicationInfoManager manager = new ApplicationInfoManager(instanceConfig, instanceInfo);
-        statusChangeStrategy.update(manager, InstanceInfo.InstanceStatus.STARTING);
+        updateStatus(manager, InstanceInfo.InstanceStatus.STARTING);
 
         return manager;
     }
 
     private EurekaInstanceConfig buildInstanceConfig(DiscoveryNode localNode) {
+        String instanceId = getInstanceId(localNode);
         try {
             String value;
             if (this.useClasspathEurekaClientProps) {
-                String configProperty = DynamicPropertyFactory
-                        .getInstance()
-                        .getStringProperty("eureka.client.props", "eureka-client").get();
-
-                String eurekaPropertyFile = String.format("%s.properties", configProperty);
-                ClassLoader loader = Thread.currentThread().getContextClassLoader();
-                URL url = loader.getResource(eurekaPropertyFile);
-                if (url == null) {
-                    throw new IllegalStateException("Cannot locate " + eurekaPropertyFile + " as a classpath resource.");
-                }
-                Properties props = new Properties();
-                props.load(url.openStream());
+                Properties props = loadEurekaClientProperties();
 
                 String key = String.format("%s.datacenter", this.namespace);
                 value = props.getProperty(key, "");
@@ -238,17 +749,68 @@ final class EurekaOneDiscoveryStrategy
                 value = String.valueOf(getProperties().get(DATACENTER.key()));
             }
             if ("cloud".equals(value.trim().toLowerCase())) {
-                return new DelegatingInstanceConfig(new CloudInstanceConfig(this.namespace), localNode);
+                return new DelegatingInstanceConfig(createCloudInstanceConfig(), localNode, instanceId);
             }
             if (this.useClasspathEurekaClientProps) {
-                return new DelegatingInstanceConfig(new MyDataCenterInstanceConfig(this.namespace), localNode);
+                return new DelegatingInstanceConfig(new MyDataCenterInstanceConfig(this.namespace), localNode, instanceId);
             }
-            return new DelegatingInstanceConfig(new MyDataCenterInstanceConfig(this.namespace), localNode, getAppname());
+            return new DelegatingInstanceConfig(new MyDataCenterInstanceConfig(this.namespace), localNode, instanceId,
+                    getAppname());
         } catch (IOException e) {
             throw new IllegalStateException("Cannot build EurekaInstanceInfo", e);
         }
     }
 
+    /**
+     * With a cache file the Amazon info is only resolved from the EC2 metadata service when the cached one is
+     * missing or belongs to another instance, see {@link AmazonInfoCache}.
+     */
+    private EurekaInstanceConfig createCloudInstanceConfig() throws IOException {
+        String cacheFile = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, AMAZON_INFO_CACHE_FILE, null);
+        if (cacheFile == null) {
+            return new CloudInstanceConfig(this.namespace);
+        }
+        int ttlSeconds = getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, AMAZON_INFO_CACHE_TTL_SECONDS,
+                DEFAULT_AMAZON_INFO_CACHE_TTL_SECONDS);
+        AmazonInfoCache cache = new AmazonInfoCache(Paths.get(cacheFile), TimeUnit.SECONDS.toMillis(ttlSeconds),
+                getLogger(), virtualThreads);
+        return new CachedCloudInstanceConfig(this.namespace, cache.load());
+    }
+
+    private Properties loadEurekaClientProperties() throws IOException {
+        String configProperty = DynamicPropertyFactory
+                .getInstance()
+                .getStringProperty("eureka.client.props", "eureka-client").get();
+
+        String eurekaPropertyFile = String.format("%s.properties", configProperty);
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        URL url = loader.getResource(eurekaPropertyFile);
+        if (url == null) {
+            throw new IllegalStateException("Cannot locate " + eurekaPropertyFile + " as a classpath resource.");
+        }
+        Properties props = new Properties();
+        props.load(url.openStream());
+        return props;
+    }
+
+    /**
+     * A stable instance id makes a restarted member replace its own registration instead of leaving a registration
+     * behind until its lease expires.
+     */
+    private String getInstanceId(DiscoveryNode localNode) {
+        if (localNode == null || !getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, STABLE_INSTANCE_ID, false)) {
+            return UuidUtil.newSecureUuidString();
+        }
+        return stableInstanceId(localNode.getPrivateAddress(), groupName,
+                getOrDefault(EUREKA_ONE_SYSTEM_PREFIX, INSTANCE_ID_SUFFIX, null));
+    }
+
+    @VisibleForTesting
+    static String stableInstanceId(Address address, String clusterName, String suffix) {
+        String instanceId = address.getHost() + ":" + address.getPort() + ":" + clusterName;
+        return suffix == null || suffix.isEmpty() ? instanceId : instanceId + ":" + suffix;
+    }
+
     private String getGroupNameFromMetadata(Map<String, String> metadata) {
         String groupName = Config.DEFAULT_CLUSTER_NAME;
         if (metadata.containsKey(EurekaHazelcastMetadata.HAZELCAST_GROUP_NAME)) {
@@ -258,92 +820,449 @@ final class EurekaOneDiscoveryStrategy
     }
 
     public Iterable<DiscoveryNode> discoverNodes() {
-        List<DiscoveryNode> nodes = new ArrayList<>();
-        String applicationName = applicationInfoManager.getEurekaInstanceConfig().getAppname();
+        return discovery.get();
+    }
 
-        Application application = null;
-        for (int i = 0; i < NUM_RETRIES; i++) {
-            application = eurekaClient.getApplication(applicationName);
-            if (application != null) {
-                break;
+    private List<DiscoveryNode> computeDiscoverNodes() {
+        registerWithLocalInstance();
+        DiscoveryJfrEvents.DiscoverNodes event = new DiscoveryJfrEvents.DiscoverNodes();
+        event.begin();
+        long start = System.nanoTime();
+        List<DiscoveryNode> nodes = Collections.emptyList();
+        try {
+            nodes = probeReachability(doDiscoverNodes(event));
+            return nodes;
+        } finally {
+            metrics.recordDiscoverNodes(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.application = getApplicationName();
+                event.discoveredNodes = nodes.size();
+                event.commit();
             }
-            try {
-                TimeUnit.SECONDS.sleep(DISCOVERY_RETRY_TIMEOUT);
-            } catch (InterruptedException almostIgnore) {
-                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the unreachable nodes last, or drops them unless none of the nodes is reachable.
+     */
+    private List<DiscoveryNode> probeReachability(List<DiscoveryNode> nodes) {
+        if (reachabilityProbe == null || nodes.isEmpty()) {
+            return nodes;
+        }
+        List<Address> addresses = new ArrayList<>(nodes.size());
+        for (DiscoveryNode node : nodes) {
+            addresses.add(node.getPrivateAddress());
+        }
+        Set<Address> reachableAddresses = reachabilityProbe.apply(addresses);
+        List<DiscoveryNode> reachable = new ArrayList<>(nodes.size());
+        List<DiscoveryNode> unreachable = new ArrayList<>();
+        for (DiscoveryNode node : nodes) {
+            if (reachableAddresses.contains(node.getPrivateAddress())) {
+                reachable.add(node);
+            } else {
+                unreachable.add(node);
             }
         }
-        if (application != null) {
-            List<InstanceInfo> instances = application.getInstancesAsIsFromEureka();
+        metrics.recordUnreachableNodes(unreachable.size());
+        if (!dropUnreachable || reachable.isEmpty()) {
+            reachable.addAll(unreachable);
+        }
+        return reachable;
+    }
 
-            for (InstanceInfo instance : instances) {
-                // Only recognize up and running instances
-                if (instance.getStatus() != InstanceInfo.InstanceStatus.UP) {
-                    continue;
-                }
+    private List<DiscoveryNode> doDiscoverNodes(DiscoveryJfrEvents.DiscoverNodes event) {
+        if (clientMemberDiscovery == null) {
+            return discoverNodesFromEureka(event);
+        }
+        List<DiscoveryNode> members = clientMemberDiscovery.getReachableMembers();
+        if (!members.isEmpty()) {
+            return members;
+        }
+        getLogger().info("None of the known members is reachable, discovering members from Eureka");
+        List<DiscoveryNode> nodes = discoverNodesFromEureka(event);
+        clientMemberDiscovery.onDiscovered(nodes);
+        return nodes;
+    }
 
-                Map<String, String> metadata = instance.getMetadata();
-                @SuppressWarnings({"unchecked", "rawtypes"}) Map<String, String> properties = metadata;
+    private List<DiscoveryNode> discoverNodesFromEureka(DiscoveryJfrEvents.DiscoverNodes event) {
+        String applicationName = getApplicationName();
 
-                if (useMetadataForHostAndPort) {
-                    addNodeUsingMetadata(nodes, instance, metadata, properties);
-                } else {
-                    addNode(nodes, instance, properties);
-                }
+        Application application = getApplication(applicationName, lastGoodResult != null);
+        if (application == null) {
+            List<DiscoveryNode> staleNodes = lastGoodResult == null ? null : lastGoodResult.getNodes();
+            if (staleNodes == null) {
+                return new ArrayList<>();
             }
+            metrics.recordStaleResult(lastGoodResult.getAgeMillis());
+            lastGoodResult.revalidate(() -> revalidate(applicationName));
+            return staleNodes;
+        }
+
+        event.eurekaInstances = application.getInstancesAsIsFromEureka().size();
+        List<DiscoveryNode> nodes = toNodes(application);
+        if (lastGoodResult != null) {
+            lastGoodResult.update(nodes);
+            metrics.recordFreshResult();
         }
         return nodes;
     }
 
-    private void addNodeUsingMetadata(List<DiscoveryNode> nodes, InstanceInfo instance, Map<String, String> metadata,
-            Map<String, String> properties) {
-        if (getGroupNameFromMetadata(metadata).equals(groupName)) {
-            InetAddress address = mapAddress(instance);
-            int port = mapPort(instance);
-            if (address != null) {
-                nodes.add(new SimpleDiscoveryNode(new Address(address, port), properties));
+    /**
+     * Runs in the background while the last good nodes are returned.
+     */
+    private List<DiscoveryNode> revalidate(String applicationName) {
+        Application application = getApplication(applicationName, false);
+        return application == null ? null : toNodes(application);
+    }
+
+    private List<DiscoveryNode> toNodes(Application application) {
+        List<InstanceInfo> instances = application.getInstancesAsIsFromEureka();
+        FilterReason[] reasons = new FilterReason[instances.size()];
+        DiscoveryNode[] candidates = new DiscoveryNode[instances.size()];
+        List<DiscoveryNode> added = new ArrayList<>();
+        long nowMillis = System.currentTimeMillis();
+        for (int i = 0; i < reasons.length; i++) {
+            reasons[i] = filterAndAddNode(added, instances.get(i), nowMillis);
+            if (reasons[i] == FilterReason.ACCEPTED) {
+                candidates[i] = added.get(added.size() - 1);
+            }
+        }
+
+        Collection<Integer> accepted = deduplicate(instances, reasons, candidates);
+        List<DiscoveryNode> nodes = new ArrayList<>(accepted.size());
+        List<InstanceInfo> acceptedInstances = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            nodes.add(candidates[i]);
+            acceptedInstances.add(instances.get(i));
+        }
+        recordOutcomes(instances, reasons, candidates);
+        return selectSubset(nodes, acceptedInstances);
+    }
+
+    /**
+     * Keeps a single instance per address, the one which renewed its lease most recently, e.g. the current
+     * registration of a restarted member rather than the one it left behind.
+     *
+     * @return indexes of the accepted instances, in Eureka order
+     */
+    private static Collection<Integer> deduplicate(List<InstanceInfo> instances, FilterReason[] reasons,
+                                                   DiscoveryNode[] candidates) {
+        Map<Address, Integer> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i] == null) {
+                continue;
+            }
+            Integer previous = accepted.putIfAbsent(candidates[i].getPrivateAddress(), i);
+            if (previous == null) {
+                continue;
+            }
+            if (getRenewalTimestamp(instances.get(i)) > getRenewalTimestamp(instances.get(previous))) {
+                accepted.put(candidates[i].getPrivateAddress(), i);
+                reasons[previous] = FilterReason.DUPLICATE;
+            } else {
+                reasons[i] = FilterReason.DUPLICATE;
+            }
+        }
+        return accepted.values();
+    }
+
+    private void recordOutcomes(List<InstanceInfo> instances, FilterReason[] reasons, DiscoveryNode[] candidates) {
+        List<DiscoveryState.InstanceOutcome> outcomes = diagnostics == null ? null : new ArrayList<>();
+        for (int i = 0; i < reasons.length; i++) {
+            metrics.recordInstance(reasons[i]);
+            if (outcomes != null) {
+                String address = candidates[i] != null
+                        ? candidates[i].getPrivateAddress().toString()
+                        : instances.get(i).getHostName();
+                outcomes.add(new DiscoveryState.InstanceOutcome(instances.get(i).getId(), address, reasons[i]));
+            }
+        }
+        if (outcomes != null) {
+            diagnostics.getState().recordDiscovery(System.currentTimeMillis(), outcomes);
+        }
+    }
+
+    private static long getRenewalTimestamp(InstanceInfo instance) {
+        LeaseInfo leaseInfo = instance.getLeaseInfo();
+        return leaseInfo == null ? 0 : leaseInfo.getRenewalTimestamp();
+    }
+
+    private List<DiscoveryNode> selectSubset(List<DiscoveryNode> nodes, List<InstanceInfo> acceptedInstances) {
+        if (seedSubset != null) {
+            long[] upTimestamps = acceptedInstances.stream().mapToLong(EurekaOneDiscoveryStrategy::getUpTimestamp).toArray();
+            return seedSubset.select(nodes, upTimestamps);
+        }
+        if (clientSubset != null) {
+            return clientSubset.select(nodes, acceptedInstances);
+        }
+        return nodes;
+    }
+
+    private static long getUpTimestamp(InstanceInfo instance) {
+        LeaseInfo leaseInfo = instance.getLeaseInfo();
+        if (leaseInfo == null || leaseInfo.getServiceUpTimestamp() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return leaseInfo.getServiceUpTimestamp();
+    }
+
+    private FilterReason filterAndAddNode(List<DiscoveryNode> nodes, InstanceInfo instance, long nowMillis) {
+        // Only recognize up and running instances
+        if (instance.getStatus() != InstanceInfo.InstanceStatus.UP) {
+            return FilterReason.NOT_UP;
+        }
+        if (maxLeaseRenewalAgeMillis > 0) {
+            long renewalTimestamp = getRenewalTimestamp(instance);
+            if (renewalTimestamp > 0 && nowMillis - renewalTimestamp > maxLeaseRenewalAgeMillis) {
+                return FilterReason.LEASE_EXPIRED;
+            }
+        }
+
+        Map<String, String> metadata = instance.getMetadata();
+        @SuppressWarnings({"unchecked", "rawtypes"}) Map<String, String> properties = metadata;
+
+        if (useMetadataForHostAndPort) {
+            return addNodeUsingMetadata(nodes, instance, metadata, properties);
+        }
+        return addNode(nodes, instance, properties);
+    }
+
+    /**
+     * @param stopWhenStale stop retrying as soon as the last good nodes can be returned instead
+     */
+    private Application getApplication(String applicationName, boolean stopWhenStale) {
+        if (destroyed) {
+            return null;
+        }
+        if (readOnly) {
+            return getReadOnlyApplication(stopWhenStale);
+        }
+        if (eurekaClient != null) {
+            return getApplication(() -> eurekaClient.getApplication(applicationName), stopWhenStale);
+        }
+        // bootstrapping a Hazelcast client, the EurekaClient must not keep polling afterwards
+        EurekaClient client = createEurekaClient(clientFactories);
+        try {
+            return getApplication(() -> client.getApplication(applicationName), stopWhenStale);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private Application getReadOnlyApplication(boolean stopWhenStale) {
+        if (readOnlyClient != null) {
+            return getApplication(() -> getReadOnlyApplication(readOnlyClient), stopWhenStale);
+        }
+        // bootstrapping a Hazelcast client, nothing must keep polling afterwards
+        ReadOnlyDiscoveryClient client = createReadOnlyClient(clientFactories);
+        try {
+            return getApplication(() -> getReadOnlyApplication(client), stopWhenStale);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Falls back to the registry snapshot, like the backup registry of a {@code DiscoveryClient}, until Eureka
+     * answered once.
+     */
+    private Application getReadOnlyApplication(ReadOnlyDiscoveryClient client) {
+        Application application = client.getApplication();
+        if (application == null && backupRegistrySnapshotFile != null && client.getLastSuccessfulRefreshAgeMillis() < 0) {
+            return readRegistrySnapshot();
+        }
+        return application;
+    }
+
+    private Application getApplication(Supplier<Application> lookup, boolean stopWhenStale) {
+        Application application = null;
+        for (int i = 0; i < NUM_RETRIES; i++) {
+            if (i > 0) {
+                metrics.recordRetry();
             }
+            application = lookup.get();
+            if (application != null || destroyed || (stopWhenStale && lastGoodResult.getNodes() != null)) {
+                break;
+            }
+            try {
+                TimeUnit.SECONDS.sleep(DISCOVERY_RETRY_TIMEOUT);
+            } catch (InterruptedException almostIgnore) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return application;
+    }
+
+    private FilterReason addNodeUsingMetadata(List<DiscoveryNode> nodes, InstanceInfo instance,
+            Map<String, String> metadata, Map<String, String> properties) {
+        if (!getGroupNameFromMetadata(metadata).equals(groupName)) {
+            return FilterReason.GROUP_MISMATCH;
+        }
+        InetAddress address = mapAddress(instance);
+        int port = mapPort(instance);
+        if (address == null) {
+            return FilterReason.UNRESOLVABLE;
         }
+        nodes.add(new SimpleDiscoveryNode(new Address(address, port), properties));
+        return FilterReason.ACCEPTED;
     }
 
-    private void addNode(List<DiscoveryNode> nodes, InstanceInfo instance, Map<String, String> properties) {
+    private FilterReason addNode(List<DiscoveryNode> nodes, InstanceInfo instance, Map<String, String> properties) {
         InetAddress address = mapAddress(instance);
         if (null == address) {
-            return;
+            return FilterReason.UNRESOLVABLE;
         }
 
         int port = instance.getPort();
         nodes.add(new SimpleDiscoveryNode(new Address(address, port), properties));
+        return FilterReason.ACCEPTED;
+    }
+
+    private void registerWithLocalInstance() {
+        if (adaptiveRefresh == null || localInstance == null) {
+            return;
+        }
+        HazelcastInstance instance = localInstance.get();
+        if (instance != null) {
+            adaptiveRefresh.registerWith(instance);
+        }
+    }
+
+    private long getRegistryStalenessMillis() {
+        if (readOnlyClient != null) {
+            return readOnlyClient.getLastSuccessfulRefreshAgeMillis();
+        }
+        if (eurekaClient instanceof DiscoveryClient) {
+            return ((DiscoveryClient) eurekaClient).getLastSuccessfulRegistryFetchTimePeriod();
+        }
+        return -1;
+    }
+
+    @VisibleForTesting
+    DiscoveryMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> discoverLocalMetadata() {
+        return localInstance == null ? Collections.emptyMap() : localInstance.getMetadata();
     }
 
     @Override
     public void start() {
-        statusChangeStrategy.update(applicationInfoManager, InstanceInfo.InstanceStatus.UP);
-        if (!skipEurekaRegistrationVerification) {
+        if (metricsAddress != null) {
+            try {
+                metrics.registerAs(metricsAddress.getHost() + ":" + metricsAddress.getPort());
+            } catch (JMException e) {
+                getLogger().warning("Cannot register the Eureka discovery metrics MBean", e);
+            }
+        }
+        if (diagnostics != null) {
+            diagnostics.start();
+        }
+        awaitRegistrationJitter();
+        updateStatus(applicationInfoManager, InstanceInfo.InstanceStatus.UP);
+        if (!skipEurekaRegistrationVerification && (eurekaClient != null || readOnlyClient != null)) {
             verifyEurekaRegistration();
         }
     }
 
+    /**
+     * Setting the status to {@code UP} registers the instance right away, before the jittered initial instance
+     * info replication of the {@code DiscoveryClient}, so the registration jitter is waited for here.
+     */
+    private void awaitRegistrationJitter() {
+        if (registrationJitterSeconds == 0 || applicationInfoManager == null || !statusChangeStrategy.shouldRegister()) {
+            return;
+        }
+        try {
+            TimeUnit.SECONDS.sleep(registrationJitterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @VisibleForTesting
+    int getRegistrationJitterSeconds() {
+        return registrationJitterSeconds;
+    }
+
+    /**
+     * Stops the revalidation of the last good nodes and the lookups of the local Hazelcast instances.
+     */
+    private void stopLookups() {
+        if (lastGoodResult != null) {
+            lastGoodResult.stop();
+        }
+        if (clientMemberDiscovery != null) {
+            clientMemberDiscovery.stop();
+        }
+        if (localInstance != null) {
+            localInstance.stop();
+        }
+    }
+
     @Override
     public void destroy() {
-        statusChangeStrategy.update(applicationInfoManager, InstanceInfo.InstanceStatus.DOWN);
+        DiscoveryJfrEvents.Shutdown event = new DiscoveryJfrEvents.Shutdown();
+        event.begin();
+        destroyed = true;
+        stopLookups();
+        updateStatus(applicationInfoManager, InstanceInfo.InstanceStatus.DOWN);
         if (null != eurekaClient) {
             eurekaClient.shutdown();
         }
+        if (null != readOnlyClient) {
+            readOnlyClient.shutdown();
+        }
+        if (null != trafficRecording) {
+            trafficRecording.close();
+        }
+        metrics.deregister();
+        if (diagnostics != null) {
+            diagnostics.stop();
+        }
+        if (event.shouldCommit()) {
+            event.application = getApplicationName();
+            event.commit();
+        }
+    }
+
+    private void updateStatus(ApplicationInfoManager manager, InstanceInfo.InstanceStatus status) {
+        if (manager == null) {
+            // read-only discovery, nothing is registered
+            return;
+        }
+        DiscoveryJfrEvents.StatusChange event = new DiscoveryJfrEvents.StatusChange();
+        event.begin();
+        String previousStatus = event.isEnabled() ? String.valueOf(manager.getInfo().getStatus()) : null;
+        statusChangeStrategy.update(manager, status);
+        if (event.shouldCommit()) {
+            event.strategy = statusChangeStrategy.getClass().getSimpleName();
+            event.previousStatus = previousStatus;
+            event.status = status.name();
+            event.commit();
+        }
     }
 
     private InetAddress mapAddress(InstanceInfo instance) {
+        DiscoveryJfrEvents.AddressResolution event = new DiscoveryJfrEvents.AddressResolution();
+        event.begin();
+        String host = useMetadataForHostAndPort
+                ? instance.getMetadata().get(EurekaHazelcastMetadata.HAZELCAST_HOST)
+                : instance.getIPAddr();
+        InetAddress address = null;
         try {
-            if (useMetadataForHostAndPort) {
-                Map<String, String> metadata = instance.getMetadata();
-                return InetAddress.getByName(metadata.get(EurekaHazelcastMetadata.HAZELCAST_HOST));
-            } else {
-                return InetAddress.getByName(instance.getIPAddr());
-            }
+            address = InetAddress.getByName(host);
         } catch (UnknownHostException e) {
             getLogger().warning("InstanceInfo '" + instance + "' could not be resolved");
         }
-        return null;
+        if (event.shouldCommit()) {
+            event.host = host;
+            event.resolved = address != null;
+            event.commit();
+        }
+        return address;
     }
 
     private int mapPort(InstanceInfo instance) {
@@ -356,12 +1275,29 @@ final class EurekaOneDiscoveryStrategy
 
     @VisibleForTesting
     void verifyEurekaRegistration() {
-        String applicationName = applicationInfoManager.getEurekaInstanceConfig().getAppname();
+        String applicationName = getApplicationName();
+        DiscoveryJfrEvents.RegistrationVerification event = new DiscoveryJfrEvents.RegistrationVerification();
+        event.begin();
+        try {
+            awaitEurekaRegistration(applicationName, event);
+        } finally {
+            if (event.shouldCommit()) {
+                event.application = applicationName;
+                event.commit();
+            }
+        }
+    }
+
+    private void awaitEurekaRegistration(String applicationName, DiscoveryJfrEvents.RegistrationVerification event) {
         Application application;
         do {
+            metrics.recordRegistrationVerificationAttempt();
+            event.attempts++;
             try {
                 getLogger().info("Waiting for registration with Eureka...");
-                application = eurekaClient.getApplication(applicationName);
+                application = readOnlyClient != null
+                        ? readOnlyClient.getApplication()
+                        : eurekaClient.getApplication(applicationName);
                 if (application != null) {
                     getLogger().info("Registered in Eureka");
                     break;
@@ -373,7 +1309,8 @@ final class EurekaOneDiscoveryStrategy
             }
 
             try {
-                TimeUnit.SECONDS.sleep(VERIFICATION_WAIT_TIMEOUT);
+                long jitterMillis = ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(scheduleJitterSeconds) + 1);
+                TimeUnit.MILLISECONDS.sleep(TimeUnit.SECONDS.toMillis(VERIFICATION_WAIT_TIMEOUT) + jitterMillis);
             } catch (InterruptedException almostIgnore) {
                 Thread.currentThread().interrupt();
             }
@@ -394,6 +1331,52 @@ final class EurekaOneDiscoveryStrategy
         public boolean shouldRegisterWithEureka() {
             return statusChangeStrategy.shouldRegister();
         }
+
+        @Override
+        public String getBackupRegistryImpl() {
+            return EurekaOneDiscoveryStrategy.this.getBackupRegistryImpl(super.getBackupRegistryImpl());
+        }
+
+        @Override
+        public int getRegistryFetchIntervalSeconds() {
+            return EurekaOneDiscoveryStrategy.this.getRegistryFetchIntervalSeconds(super.getRegistryFetchIntervalSeconds());
+        }
+
+        @Override
+        public int getInitialInstanceInfoReplicationIntervalSeconds() {
+            return super.getInitialInstanceInfoReplicationIntervalSeconds() + registrationJitterSeconds;
+        }
+
+        @Override
+        public boolean shouldDisableDelta() {
+            return EurekaOneDiscoveryStrategy.this.shouldDisableDelta(super.shouldDisableDelta());
+        }
+    }
+
+    private class EurekaOneAwarePropertyBasedConfig extends PropertyBasedEurekaClientConfig {
+        EurekaOneAwarePropertyBasedConfig(String namespace, Map<String, Object> properties) {
+            super(namespace, properties);
+        }
+
+        @Override
+        public String getBackupRegistryImpl() {
+            return EurekaOneDiscoveryStrategy.this.getBackupRegistryImpl(super.getBackupRegistryImpl());
+        }
+
+        @Override
+        public int getRegistryFetchIntervalSeconds() {
+            return EurekaOneDiscoveryStrategy.this.getRegistryFetchIntervalSeconds(super.getRegistryFetchIntervalSeconds());
+        }
+
+        @Override
+        public int getInitialInstanceInfoReplicationIntervalSeconds() {
+            return super.getInitialInstanceInfoReplicationIntervalSeconds() + registrationJitterSeconds;
+        }
+
+        @Override
+        public boolean shouldDisableDelta() {
+            return EurekaOneDiscoveryStrategy.this.shouldDisableDelta(super.shouldDisableDelta());
+        }
     }
 
     private static final class DelegatingInstanceConfig
@@ -401,22 +1384,24 @@ final class EurekaOneDiscoveryStrategy
 
         private final EurekaInstanceConfig instanceConfig;
         private final DiscoveryNode localNode;
-        private final String uuid;
+        private final String instanceId;
         private final String appname;
 
-        private DelegatingInstanceConfig(EurekaInstanceConfig instanceConfig, DiscoveryNode localNode) {
-            this(instanceConfig, localNode, instanceConfig.getAppname());
+        private DelegatingInstanceConfig(EurekaInstanceConfig instanceConfig, DiscoveryNode localNode,
+                                         String instanceId) {
+            this(instanceConfig, localNode, instanceId, instanceConfig.getAppname());
         }
 
-        private DelegatingInstanceConfig(EurekaInstanceConfig instanceConfig, DiscoveryNode localNode, String appname) {
+        private DelegatingInstanceConfig(EurekaInstanceConfig instanceConfig, DiscoveryNode localNode,
+                                         String instanceId, String appname) {
             this.instanceConfig = instanceConfig;
             this.localNode = localNode;
-            this.uuid = UuidUtil.newSecureUuidString();
+            this.instanceId = instanceId;
             this.appname = appname;
         }
 
         public String getInstanceId() {
-            return uuid;
+            return instanceId;
         }
 
         public String getAppname() {
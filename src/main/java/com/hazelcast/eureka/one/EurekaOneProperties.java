@@ -24,6 +24,7 @@ import com.hazelcast.core.TypeConverter;
 import java.util.Collection;
 
 import static com.hazelcast.config.properties.PropertyTypeConverter.BOOLEAN;
+import static com.hazelcast.config.properties.PropertyTypeConverter.INTEGER;
 import static com.hazelcast.config.properties.PropertyTypeConverter.STRING;
 import static com.hazelcast.eureka.one.PropertyBasedEurekaClientConfigConstants.BACKUP_REGISTRY_CLASSNAME_KEY;
 import static com.hazelcast.eureka.one.PropertyBasedEurekaClientConfigConstants.CACHEREFRESH_BACKOFF_BOUND_KEY;
@@ -166,6 +167,298 @@ public final class EurekaOneProperties {
      */
     public static final PropertyDefinition NAMESPACE = property("namespace", STRING);
 
+    /**
+     * <p>Configuration key: <code>circuit-breaker-enabled</code></p>
+     * <p>Defines if requests to each Eureka server are guarded by a circuit breaker. Once a server failed
+     * <code>circuit-breaker-failure-threshold</code> consecutive times, heartbeats and registry refreshes skip it
+     * and fail over to the next server without waiting for the connect/read timeouts.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition CIRCUIT_BREAKER_ENABLED = property("circuit-breaker-enabled", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>circuit-breaker-failure-threshold</code></p>
+     * <p>Number of consecutive failed requests after which the circuit breaker of a Eureka server opens.</p>
+     * <p>The default value is: <code>3</code></p>
+     */
+    public static final PropertyDefinition CIRCUIT_BREAKER_FAILURE_THRESHOLD =
+            property("circuit-breaker-failure-threshold", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>circuit-breaker-open-seconds</code></p>
+     * <p>Time the circuit breaker of a Eureka server stays open before a single trial request is let through.</p>
+     * <p>The default value is: <code>30</code></p>
+     */
+    public static final PropertyDefinition CIRCUIT_BREAKER_OPEN_SECONDS = property("circuit-breaker-open-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>backup-registry-snapshot-file</code></p>
+     * <p>Path of the file where a compact snapshot of the Hazelcast application's instances is persisted after
+     * every successful registry fetch which changed them. When set, the bundled {@link SnapshotBackupRegistry}
+     * serves this snapshot if Eureka is unreachable at startup, unless another <code>backupregistry</code> is
+     * configured.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: none (snapshots are disabled)</p>
+     */
+    public static final PropertyDefinition BACKUP_REGISTRY_SNAPSHOT_FILE = property("backup-registry-snapshot-file", STRING);
+
+    /**
+     * <p>Configuration key: <code>registry-replication-enabled</code></p>
+     * <p>Defines if only one member of the Hazelcast cluster, the oldest one, polls the Eureka registry. It shares
+     * the instances of the Hazelcast application with the other members through a replicated map and the other
+     * members refresh their registry from it instead of querying Eureka.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition REGISTRY_REPLICATION_ENABLED = property("registry-replication-enabled", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>registry-replication-max-staleness-seconds</code></p>
+     * <p>Maximum age of the registry published by the oldest member. When it is older, e.g. because the oldest
+     * member cannot reach Eureka, the other members poll Eureka directly again.</p>
+     * <p>The default value is: <code>90</code></p>
+     */
+    public static final PropertyDefinition REGISTRY_REPLICATION_MAX_STALENESS_SECONDS =
+            property("registry-replication-max-staleness-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>client-discovery-via-members</code></p>
+     * <p>Defines if a Hazelcast client queries Eureka only to bootstrap. Afterwards it discovers the members
+     * known to its connection to the cluster and only queries Eureka again when none of them is reachable.
+     * When the plugin creates the <code>EurekaClient</code> itself, the client only exists while bootstrapping,
+     * so it does not poll the Eureka servers in the background.</p>
+     * <p>This is only used by Hazelcast clients.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition CLIENT_DISCOVERY_VIA_MEMBERS = property("client-discovery-via-members", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>client-member-probe-timeout-millis</code></p>
+     * <p>Time budget to check which known members are reachable when
+     * <code>client-discovery-via-members</code> is enabled. All members are probed at once.</p>
+     * <p>The default value is: <code>1000</code></p>
+     */
+    public static final PropertyDefinition CLIENT_MEMBER_PROBE_TIMEOUT_MILLIS =
+            property("client-member-probe-timeout-millis", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>diagnostics-period-seconds</code></p>
+     * <p>Period in which a member writes the state of the plugin into its log, <code>0</code> disables it.</p>
+     * <p>The default value is: <code>0</code></p>
+     */
+    public static final PropertyDefinition DIAGNOSTICS_PERIOD_SECONDS = property("diagnostics-period-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>discovery-max-staleness-seconds</code></p>
+     * <p>Maximum age of the last nodes discovered from Eureka which are still returned when Eureka does not return
+     * the application, e.g. after a failed registry refresh. Meanwhile the lookup is retried in the background.
+     * <code>0</code> disables it, discovery then retries and returns no nodes.</p>
+     * <p>The default value is: <code>300</code></p>
+     */
+    public static final PropertyDefinition DISCOVERY_MAX_STALENESS_SECONDS =
+            property("discovery-max-staleness-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>seed-subset-size</code></p>
+     * <p>Maximum number of discovered members a member tries to join through. The subset contains the
+     * <code>seed-subset-oldest-members</code> members which are up in Eureka for the longest time and is filled
+     * up by rendezvous hashing of the address of the joining member, so it is stable for each member and joining
+     * members spread over the cluster. Once the member has joined, every discovered member is returned again, so
+     * split-brain merges can find all of them.</p>
+     * <p>This is only used by members.</p>
+     * <p>The default value is: <code>0</code> (every discovered member is returned)</p>
+     */
+    public static final PropertyDefinition SEED_SUBSET_SIZE = property("seed-subset-size", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>seed-subset-oldest-members</code></p>
+     * <p>Number of oldest members always included in the subset when <code>seed-subset-size</code> is set.</p>
+     * <p>The default value is: <code>3</code></p>
+     */
+    public static final PropertyDefinition SEED_SUBSET_OLDEST_MEMBERS = property("seed-subset-oldest-members", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>publish-client-connections</code></p>
+     * <p>Defines if a member publishes the number of connected Hazelcast clients in the
+     * <code>hazelcast.clientConnections</code> Eureka metadata after every registry refresh, so clients using
+     * <code>client-subset-size</code> prefer members serving fewer clients.</p>
+     * <p>This is only used by members when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition PUBLISH_CLIENT_CONNECTIONS = property("publish-client-connections", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>client-subset-size</code></p>
+     * <p>Maximum number of discovered members returned to a Hazelcast client. Members in the zone of the client
+     * (<code>hazelcast.zone</code> Eureka metadata, otherwise the Amazon availability zone) rank first, and members
+     * publishing fewer client connections are more likely to be selected.</p>
+     * <p>This is only used by Hazelcast clients.</p>
+     * <p>The default value is: <code>0</code> (every discovered member is returned in Eureka order)</p>
+     */
+    public static final PropertyDefinition CLIENT_SUBSET_SIZE = property("client-subset-size", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>discovery-result-ttl-millis</code></p>
+     * <p>Time the result of a discovery is reused by subsequent discoveries. Concurrent discoveries always share
+     * a single lookup, <code>0</code> only disables the reuse afterwards. Empty results and failures are never
+     * reused.</p>
+     * <p>The default value is: <code>0</code></p>
+     */
+    public static final PropertyDefinition DISCOVERY_RESULT_TTL_MILLIS = property("discovery-result-ttl-millis", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>stable-instance-id</code></p>
+     * <p>Defines if a member registers with the Eureka instance id <code>host:port:cluster-name</code>, followed by
+     * <code>:instance-id-suffix</code> if configured, instead of a random UUID. A restarted member then replaces its
+     * own registration instead of leaving one behind until its lease expires.</p>
+     * <p>This is only used by members.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition STABLE_INSTANCE_ID = property("stable-instance-id", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>instance-id-suffix</code></p>
+     * <p>Suffix of the stable instance id, e.g. to tell apart members of different deployments sharing an address.</p>
+     * <p>The default value is: none</p>
+     */
+    public static final PropertyDefinition INSTANCE_ID_SUFFIX = property("instance-id-suffix", STRING);
+
+    /**
+     * <p>Configuration key: <code>max-lease-renewal-age-seconds</code></p>
+     * <p>Instances which did not renew their Eureka lease for longer are not discovered, even if they are still
+     * <code>UP</code> in the registry. Registry deltas do not carry lease renewals, so when set every registry
+     * refresh fetches the full registry. It should be well above the lease renewal interval plus the registry
+     * refresh interval and the response cache period of the Eureka servers.</p>
+     * <p>The default value is: <code>0</code> (the lease renewal is not checked)</p>
+     */
+    public static final PropertyDefinition MAX_LEASE_RENEWAL_AGE_SECONDS =
+            property("max-lease-renewal-age-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>reachability-probe-budget-millis</code></p>
+     * <p>Time within which all the discovered nodes are probed at once for accepting TCP connections before they are
+     * returned. Unreachable nodes are returned last, or dropped with <code>reachability-probe-drop-unreachable</code>.
+     * Probe results are cached for a few seconds.</p>
+     * <p>The default value is: <code>0</code> (nodes are not probed)</p>
+     */
+    public static final PropertyDefinition REACHABILITY_PROBE_BUDGET_MILLIS =
+            property("reachability-probe-budget-millis", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>reachability-probe-drop-unreachable</code></p>
+     * <p>Defines if the nodes found unreachable by the probe are dropped instead of returned last. All the nodes
+     * are returned when none of them is reachable.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition REACHABILITY_PROBE_DROP_UNREACHABLE =
+            property("reachability-probe-drop-unreachable", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>traffic-recording-file</code></p>
+     * <p>Path of a file where the registry responses received from Eureka, full registries, deltas and single
+     * applications, are recorded with their timing, to be replayed in tests and benchmarks. The recording of the
+     * previous run is kept with the suffix <code>.1</code>.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: none (traffic is not recorded)</p>
+     */
+    public static final PropertyDefinition TRAFFIC_RECORDING_FILE = property("traffic-recording-file", STRING);
+
+    /**
+     * <p>Configuration key: <code>read-only-discovery</code></p>
+     * <p>Defines if Hazelcast clients and members which do not register with Eureka only keep the instances of the
+     * Hazelcast application, refreshed from Eureka on a single thread, instead of running a complete
+     * <code>DiscoveryClient</code> with its instance info, heartbeat and full registry cache.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition READ_ONLY_DISCOVERY = property("read-only-discovery", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>virtual-threads-enabled</code></p>
+     * <p>Defines if the Eureka heartbeats and registry refreshes, and the background work of the plugin, run on
+     * virtual threads instead of platform threads. Requires Java 21 or later, platform threads are used otherwise.</p>
+     * <p>The default value is: <code>false</code></p>
+     */
+    public static final PropertyDefinition VIRTUAL_THREADS_ENABLED = property("virtual-threads-enabled", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>adaptive-refresh-min-seconds</code></p>
+     * <p>Defines the shortest interval, in seconds, between two registry refreshes sent to Eureka. When set, the
+     * registry is refreshed every minimum interval while the Hazelcast application changes, members join or leave
+     * the cluster, or the local member is still forming its cluster. The interval then doubles after every refresh
+     * finding the application unchanged, up to <code>adaptive-refresh-max-seconds</code>. It replaces the
+     * registry fetch interval of the Eureka client configuration.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>0</code> (the registry fetch interval is fixed)</p>
+     */
+    public static final PropertyDefinition ADAPTIVE_REFRESH_MIN_SECONDS = property("adaptive-refresh-min-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>adaptive-refresh-max-seconds</code></p>
+     * <p>Defines the longest interval, in seconds, between two registry refreshes sent to Eureka once the
+     * Hazelcast application is stable, see <code>adaptive-refresh-min-seconds</code>.</p>
+     * <p>The default value is: <code>120</code></p>
+     */
+    public static final PropertyDefinition ADAPTIVE_REFRESH_MAX_SECONDS = property("adaptive-refresh-max-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>schedule-jitter-seconds</code></p>
+     * <p>Defines the maximum random delay, in seconds, added to the initial registration with Eureka, to the
+     * registry refresh interval and to every wait of the registration verification, so that members restarted
+     * together do not call Eureka in lockstep. The delays are drawn once per discovery strategy, except for the
+     * verification waits. The start of the member waits for the registration delay before setting its status to
+     * <code>UP</code>, which registers it.</p>
+     * <p>The refresh interval jitter is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>0</code> (no jitter)</p>
+     */
+    public static final PropertyDefinition SCHEDULE_JITTER_SECONDS = property("schedule-jitter-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>request-rate-limit</code></p>
+     * <p>Defines the maximum number of requests per second sent to the Eureka servers by all the discovery
+     * strategies of the JVM configured with the same limit. Requests above the limit wait for their turn, up to
+     * <code>request-rate-max-wait-millis</code>. Heartbeats and cancellations are not limited.</p>
+     * <p>This is only used when the plugin creates the <code>EurekaClient</code> itself.</p>
+     * <p>The default value is: <code>0</code> (no limit)</p>
+     */
+    public static final PropertyDefinition REQUEST_RATE_LIMIT = property("request-rate-limit", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>request-rate-burst</code></p>
+     * <p>Defines how many requests may be sent to the Eureka servers at once, without waiting, when the
+     * <code>request-rate-limit</code> was not reached for a while.</p>
+     * <p>The default value is: the value of <code>request-rate-limit</code></p>
+     */
+    public static final PropertyDefinition REQUEST_RATE_BURST = property("request-rate-burst", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>request-rate-max-wait-millis</code></p>
+     * <p>Defines how long a request may wait for its turn under the <code>request-rate-limit</code>. Requests which
+     * would wait longer fail right away, the Eureka client retries them on its next schedule.</p>
+     * <p>The default value is: <code>5000</code></p>
+     */
+    public static final PropertyDefinition REQUEST_RATE_MAX_WAIT_MILLIS =
+            property("request-rate-max-wait-millis", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>amazon-info-cache-file</code></p>
+     * <p>Defines the file caching the Amazon info of the EC2 instance when the datacenter is <code>cloud</code>.
+     * A restarted member only validates the cached info with a single call to the EC2 metadata service instead of
+     * resolving it again.</p>
+     * <p>This is only used when the plugin creates the <code>ApplicationInfoManager</code> itself.</p>
+     * <p>The default value is: none (the Amazon info is resolved on every start)</p>
+     */
+    public static final PropertyDefinition AMAZON_INFO_CACHE_FILE = property("amazon-info-cache-file", STRING);
+
+    /**
+     * <p>Configuration key: <code>amazon-info-cache-ttl-seconds</code></p>
+     * <p>Defines after how many seconds the cached Amazon info is resolved again, in the background, see
+     * <code>amazon-info-cache-file</code>.</p>
+     * <p>The default value is: <code>3600</code></p>
+     */
+    public static final PropertyDefinition AMAZON_INFO_CACHE_TTL_SECONDS = property("amazon-info-cache-ttl-seconds", INTEGER);
+
     static final Collection<PropertyDefinition> HZ_PROPERTY_DEFINITIONS = Lists.newArrayList(
             USE_CLASSPATH_EUREKA_CLIENT_PROPS,
             NAME,
@@ -173,7 +466,38 @@ public final class EurekaOneProperties {
             SELF_REGISTRATION,
             NAMESPACE,
             USE_METADATA_FOR_HOST_AND_PORT,
-            SKIP_EUREKA_REGISTRATION_VERIFICATION
+            SKIP_EUREKA_REGISTRATION_VERIFICATION,
+            CIRCUIT_BREAKER_ENABLED,
+            CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+            CIRCUIT_BREAKER_OPEN_SECONDS,
+            BACKUP_REGISTRY_SNAPSHOT_FILE,
+            REGISTRY_REPLICATION_ENABLED,
+            REGISTRY_REPLICATION_MAX_STALENESS_SECONDS,
+            CLIENT_DISCOVERY_VIA_MEMBERS,
+            CLIENT_MEMBER_PROBE_TIMEOUT_MILLIS,
+            DIAGNOSTICS_PERIOD_SECONDS,
+            DISCOVERY_MAX_STALENESS_SECONDS,
+            SEED_SUBSET_SIZE,
+            SEED_SUBSET_OLDEST_MEMBERS,
+            PUBLISH_CLIENT_CONNECTIONS,
+            CLIENT_SUBSET_SIZE,
+            DISCOVERY_RESULT_TTL_MILLIS,
+            STABLE_INSTANCE_ID,
+            INSTANCE_ID_SUFFIX,
+            MAX_LEASE_RENEWAL_AGE_SECONDS,
+            REACHABILITY_PROBE_BUDGET_MILLIS,
+            REACHABILITY_PROBE_DROP_UNREACHABLE,
+            TRAFFIC_RECORDING_FILE,
+            READ_ONLY_DISCOVERY,
+            VIRTUAL_THREADS_ENABLED,
+            ADAPTIVE_REFRESH_MIN_SECONDS,
+            ADAPTIVE_REFRESH_MAX_SECONDS,
+            SCHEDULE_JITTER_SECONDS,
+            REQUEST_RATE_LIMIT,
+            REQUEST_RATE_BURST,
+            REQUEST_RATE_MAX_WAIT_MILLIS,
+            AMAZON_INFO_CACHE_FILE,
+            AMAZON_INFO_CACHE_TTL_SECONDS
     );
 
     static final Collection<PropertyDefinition> EUREKA_CLIENT_PROPERTY_DEFINITIONS = Lists.newArrayList(
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of the requests sent to the Eureka servers.
+ * <p>
+ * The bucket holds up to {@code burst} tokens and is refilled with {@code permitsPerSecond} tokens per second.
+ * Every request takes a token; when none is left the request reserves the next one and waits for it, so waiting
+ * requests are spread at the configured rate in the order of their reservations. A request which would wait
+ * longer than {@code maxWaitNanos} fails fast without taking a token, and a request interrupted while waiting
+ * gives its token back.
+ * <p>
+ * Limiters are shared by all the discovery strategies of the JVM which are configured with the same rate, so
+ * that the members and clients restarted together do not flood the Eureka servers.
+ */
+final class EurekaRequestRateLimiter {
+
+    private static final ConcurrentMap<String, EurekaRequestRateLimiter> SHARED = new ConcurrentHashMap<>();
+
+    private final double nanosPerPermit;
+    private final double burst;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+
+    // guarded by this, negative when requests wait for tokens
+    private double tokens;
+    // guarded by this
+    private long refilledAt;
+
+    EurekaRequestRateLimiter(double permitsPerSecond, int burst, long maxWaitNanos) {
+        this(permitsPerSecond, burst, maxWaitNanos, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    EurekaRequestRateLimiter(double permitsPerSecond, int burst, long maxWaitNanos, LongSupplier nanoClock) {
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.maxWaitNanos = maxWaitNanos;
+        this.nanoClock = nanoClock;
+        this.tokens = this.burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return the limiter of the JVM for the rate, burst and maximum wait
+     */
+    static EurekaRequestRateLimiter shared(double permitsPerSecond, int burst, long maxWaitNanos) {
+        return SHARED.computeIfAbsent(permitsPerSecond + "/" + burst + "/" + maxWaitNanos,
+                key -> new EurekaRequestRateLimiter(permitsPerSecond, burst, maxWaitNanos));
+    }
+
+    /**
+     * Takes a token, unless the request would wait longer than the maximum wait for it.
+     *
+     * @return nanoseconds to wait before sending the request, {@code 0} if a token was available,
+     * {@code -1} if no token was taken
+     */
+    synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilledAt) / nanosPerPermit);
+        refilledAt = now;
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerPermit);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens--;
+        return waitNanos;
+    }
+
+    /**
+     * Gives back a token taken by {@link #reserve()} for a request which is not sent.
+     */
+    synchronized void release() {
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    /**
+     * Takes a token, waiting for it if none is available.
+     *
+     * @return {@code false} if the request would wait longer than the maximum wait, no token is taken then
+     * @throws InterruptedException if interrupted while waiting, the token is given back
+     */
+    boolean acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                release();
+                throw e;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+/**
+ * Outcome of mapping a Eureka instance to a discovered Hazelcast node.
+ */
+enum FilterReason {
+
+    /**
+     * The instance has been discovered.
+     */
+    ACCEPTED("accepted"),
+    /**
+     * The instance is not {@code UP}.
+     */
+    NOT_UP("filteredNotUp"),
+    /**
+     * The Hazelcast cluster name in the instance metadata is a different one.
+     */
+    GROUP_MISMATCH("filteredGroupMismatch"),
+    /**
+     * The address of the instance cannot be resolved.
+     */
+    UNRESOLVABLE("filteredUnresolvable"),
+    /**
+     * Another instance with the same address renewed its lease more recently, e.g. the current registration of
+     * a restarted member.
+     */
+    DUPLICATE("filteredDuplicate"),
+    /**
+     * The instance did not renew its lease for longer than the configured maximum age.
+     */
+    LEASE_EXPIRED("filteredLeaseExpired");
+
+    private final String metricName;
+
+    FilterReason(String metricName) {
+        this.metricName = metricName;
+    }
+
+    String getMetricName() {
+        return metricName;
+    }
+}
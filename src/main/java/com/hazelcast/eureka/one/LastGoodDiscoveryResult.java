@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.spi.discovery.DiscoveryNode;
+
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Last nodes discovered from a successful Eureka lookup, served while Eureka does not return the application
+ * (stale-while-revalidate). A transient failure of Eureka then does not make all the members disappear at once.
+ */
+final class LastGoodDiscoveryResult {
+
+    private final long maxStalenessNanos;
+    private final LongSupplier nanoClock;
+    private final ThreadFactory threads;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+    private volatile boolean stopped;
+    private volatile Thread revalidation;
+    private volatile List<DiscoveryNode> nodes;
+    private volatile long updateNanos;
+
+    LastGoodDiscoveryResult(long maxStalenessMillis, boolean virtualThreads) {
+        this(maxStalenessMillis, System::nanoTime,
+                DiscoveryThreads.newThreadFactory("hz-eureka-revalidate", virtualThreads));
+    }
+
+    LastGoodDiscoveryResult(long maxStalenessMillis, LongSupplier nanoClock) {
+        this(maxStalenessMillis, nanoClock, DiscoveryThreads.newThreadFactory("hz-eureka-revalidate", false));
+    }
+
+    LastGoodDiscoveryResult(long maxStalenessMillis, LongSupplier nanoClock, ThreadFactory threads) {
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+        this.nanoClock = nanoClock;
+        this.threads = threads;
+    }
+
+    void update(List<DiscoveryNode> nodes) {
+        this.updateNanos = nanoClock.getAsLong();
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return the last good nodes, {@code null} if there are none or they exceed the maximum staleness
+     */
+    List<DiscoveryNode> getNodes() {
+        List<DiscoveryNode> result = nodes;
+        if (result == null || nanoClock.getAsLong() - updateNanos > maxStalenessNanos) {
+            return null;
+        }
+        return result;
+    }
+
+    long getAgeMillis() {
+        return nodes == null ? -1 : TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - updateNanos);
+    }
+
+    /**
+     * Runs the lookup on a background thread, unless one is still running, and keeps its result if it is not
+     * {@code null}.
+     */
+    void revalidate(Supplier<List<DiscoveryNode>> lookup) {
+        if (stopped || !revalidating.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = threads.newThread(() -> {
+            try {
+                List<DiscoveryNode> result = lookup.get();
+                if (result != null && !stopped) {
+                    update(result);
+                }
+            } catch (RuntimeException ignored) {
+                // keep the last good nodes, the next failed discovery retries
+            } finally {
+                revalidating.set(false);
+            }
+        });
+        revalidation = thread;
+        thread.start();
+    }
+
+    /**
+     * Interrupts the running revalidation, no revalidation is started afterwards.
+     */
+    void stop() {
+        stopped = true;
+        Thread thread = revalidation;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
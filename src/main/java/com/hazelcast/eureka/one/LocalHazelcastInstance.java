@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Looks up the {@link HazelcastInstance} a discovery strategy belongs to.
+ * <p>
+ * The Discovery SPI does not hand the instance to the strategy, but it copies the metadata the strategy
+ * discovers for the local node into the attributes of the local member. Every strategy therefore publishes
+ * a unique token through {@link #getMetadata()} and the member carrying it is the local one. The lookup never
+ * blocks (see {@link BackgroundLookup}), it returns {@code null} until the member has started.
+ */
+final class LocalHazelcastInstance implements Supplier<HazelcastInstance> {
+
+    static final String TOKEN_ATTRIBUTE = "hazelcast.eureka.discovery-token";
+
+    private static final long LOOKUP_REFRESH_MILLIS = 1000;
+
+    private final String token = UUID.randomUUID().toString();
+    private final BackgroundLookup<HazelcastInstance> lookup;
+    private volatile HazelcastInstance instance;
+
+    LocalHazelcastInstance(boolean virtualThreads) {
+        this.lookup = new BackgroundLookup<>(this::lookup, null,
+                DiscoveryThreads.newThreadFactory("hz.eureka.instance-lookup", virtualThreads), LOOKUP_REFRESH_MILLIS);
+    }
+
+    /**
+     * @return the metadata identifying the local member, to be returned from
+     * {@link com.hazelcast.spi.discovery.DiscoveryStrategy#discoverLocalMetadata()}
+     */
+    Map<String, String> getMetadata() {
+        return Collections.singletonMap(TOKEN_ATTRIBUTE, token);
+    }
+
+    /**
+     * Stops looking up the instance, {@link #get()} only returns the instance found before afterwards.
+     */
+    void stop() {
+        lookup.stop();
+    }
+
+    @Override
+    public HazelcastInstance get() {
+        HazelcastInstance current = instance;
+        if (current != null && current.getLifecycleService().isRunning()) {
+            return current;
+        }
+        current = lookup.get();
+        if (current != null && current.getLifecycleService().isRunning()) {
+            instance = current;
+            return current;
+        }
+        return null;
+    }
+
+    private HazelcastInstance lookup() {
+        for (HazelcastInstance candidate : Hazelcast.getAllHazelcastInstances()) {
+            try {
+                if (token.equals(candidate.getCluster().getLocalMember().getAttribute(TOKEN_ATTRIBUTE))) {
+                    return candidate;
+                }
+            } catch (HazelcastInstanceNotActiveException ignored) {
+                // shutting down, cannot be the local member
+                continue;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.discovery.shared.transport.TransportException;
+
+/**
+ * Reports a request which {@link RateLimitingEurekaHttpClient} did not send. The Eureka server was not contacted,
+ * so {@link CircuitBreakingEurekaHttpClient} does not count it as a failure of the server.
+ */
+final class RateLimitedRequestException extends TransportException {
+
+    RateLimitedRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator;
+
+/**
+ * {@link EurekaHttpClient} which delays the requests to the Eureka servers to the rate of an
+ * {@link EurekaRequestRateLimiter}. A request which would wait too long or is interrupted while waiting is
+ * reported as a {@link RateLimitedRequestException} without being sent. Eureka's retrying client still tries the
+ * next server then, and quarantines the current one until most of the servers are quarantined.
+ * <p>
+ * Heartbeats and cancellations are sent right away and take no token: they keep or end the lease of a member
+ * which is already registered, and delaying them could expire the lease or hold up the shutdown.
+ */
+final class RateLimitingEurekaHttpClient extends EurekaHttpClientDecorator {
+
+    private final EurekaRequestRateLimiter rateLimiter;
+    private final EurekaHttpClient delegate;
+
+    RateLimitingEurekaHttpClient(EurekaRequestRateLimiter rateLimiter, EurekaHttpClient delegate) {
+        this.rateLimiter = rateLimiter;
+        this.delegate = delegate;
+    }
+
+    static EndpointClientDecorator decorator(EurekaRequestRateLimiter rateLimiter) {
+        return (endpoint, client) -> new RateLimitingEurekaHttpClient(rateLimiter, client);
+    }
+
+    @Override
+    protected <R> EurekaHttpResponse<R> execute(RequestExecutor<R> requestExecutor) {
+        RequestType requestType = requestExecutor.getRequestType();
+        if (requestType == RequestType.SendHeartBeat || requestType == RequestType.Cancel) {
+            return requestExecutor.execute(delegate);
+        }
+        try {
+            if (!rateLimiter.acquire()) {
+                throw new RateLimitedRequestException("Eureka request rate limit exceeded, " + requestType + " not sent");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitedRequestException("Interrupted while waiting to send " + requestType + " to Eureka");
+        }
+        return requestExecutor.execute(delegate);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.hazelcast.cluster.Address;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Checks which addresses accept TCP connections, connecting to all of them at once with non-blocking sockets
+ * within an overall time budget. Addresses not connected within the budget, e.g. because SYNs are dropped, are
+ * unreachable. Results are cached for {@value #CACHE_TTL_MILLIS} ms, expired results are evicted on each probe so
+ * addresses of members gone from the registry do not pile up.
+ */
+final class ReachabilityProbe implements Function<Collection<Address>, Set<Address>> {
+
+    static final long CACHE_TTL_MILLIS = 5000;
+
+    private static final long CACHE_TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(CACHE_TTL_MILLIS);
+
+    private static final class Result {
+
+        private final boolean reachable;
+        private final long nanos;
+
+        Result(boolean reachable, long nanos) {
+            this.reachable = reachable;
+            this.nanos = nanos;
+        }
+    }
+
+    private final long budgetNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<Address, Result> cache = new ConcurrentHashMap<>();
+
+    ReachabilityProbe(long budgetMillis) {
+        this(budgetMillis, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    ReachabilityProbe(long budgetMillis, LongSupplier nanoClock) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the given addresses which accept connections
+     */
+    @Override
+    public Set<Address> apply(Collection<Address> addresses) {
+        Set<Address> reachable = new HashSet<>();
+        List<Address> unknown = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        cache.values().removeIf(result -> now - result.nanos > CACHE_TTL_NANOS);
+        for (Address address : addresses) {
+            Result result = cache.get(address);
+            if (result == null) {
+                unknown.add(address);
+            } else if (result.reachable) {
+                reachable.add(address);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<Address> probed = probe(unknown);
+            long probeNanos = nanoClock.getAsLong();
+            for (Address address : unknown) {
+                cache.put(address, new Result(probed.contains(address), probeNanos));
+            }
+            reachable.addAll(probed);
+        }
+        return reachable;
+    }
+
+    @VisibleForTesting
+    int getCachedResults() {
+        return cache.size();
+    }
+
+    private Set<Address> probe(List<Address> addresses) {
+        Set<Address> reachable = new HashSet<>();
+        Selector selector;
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            // cannot probe, do not drop any address
+            return new HashSet<>(addresses);
+        }
+        try {
+            int pending = 0;
+            for (Address address : addresses) {
+                if (connect(selector, address, reachable)) {
+                    pending++;
+                }
+            }
+            long deadline = System.nanoTime() + budgetNanos;
+            while (pending > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    break;
+                }
+                selector.select(remainingMillis);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (finishConnect(key, reachable)) {
+                        pending--;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // keep the addresses found reachable so far
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+        return reachable;
+    }
+
+    /**
+     * @return {@code true} if the connection is pending
+     */
+    private static boolean connect(Selector selector, Address address, Set<Address> reachable) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(address.getInetAddress(), address.getPort()))) {
+                reachable.add(address);
+                closeQuietly(channel);
+                return false;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT, address);
+            return true;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            return false;
+        }
+    }
+
+    /**
+     * @return {@code true} if the connection is established or failed
+     */
+    private static boolean finishConnect(SelectionKey key, Set<Address> reachable) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            if (!channel.finishConnect()) {
+                return false;
+            }
+            reachable.add((Address) key.attachment());
+        } catch (IOException e) {
+            // refused or unreachable
+        }
+        key.cancel();
+        closeQuietly(channel);
+        return true;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // nothing to do
+        }
+    }
+}
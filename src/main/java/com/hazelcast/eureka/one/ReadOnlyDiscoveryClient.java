@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.ILogger;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.discovery.endpoint.EndpointUtils;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.resolver.DefaultEndpoint;
+import com.netflix.discovery.shared.resolver.EurekaEndpoint;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.TransportClientFactory;
+import com.netflix.discovery.shared.transport.jersey.TransportClientFactories;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Read-only Eureka client keeping a view of a single application, refreshed from the {@code /apps/<name>} resource
+ * of the Eureka servers. Unlike a {@code DiscoveryClient} it neither registers nor renews a lease, and neither
+ * fetches nor caches the full registry, so it needs a single thread and only holds the instances of the Hazelcast
+ * application.
+ * <p>
+ * The Eureka servers are the service URLs of the client configuration, tried in order starting with the last one
+ * which answered.
+ */
+final class ReadOnlyDiscoveryClient {
+
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+
+    private final String applicationName;
+    private final EurekaClientConfig config;
+    private final List<EurekaEndpoint> endpoints = new ArrayList<>();
+    private final TransportClientFactory transportClientFactory;
+    private final Consumer<Application> refreshListener;
+    private final ILogger logger;
+    private final boolean virtualThreads;
+    // guarded by this
+    private final EurekaHttpClient[] clients;
+    // guarded by this
+    private int currentEndpoint;
+
+    private volatile Application application;
+    private volatile long lastSuccessfulRefreshMillis = -1;
+    private volatile Runnable stopRefresh;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    ReadOnlyDiscoveryClient(EurekaClientConfig config, TransportClientFactories clientFactories, String applicationName,
+                            Consumer<Application> refreshListener, ILogger logger, boolean virtualThreads) {
+        this.applicationName = applicationName;
+        this.config = config;
+        this.refreshListener = refreshListener;
+        this.logger = logger;
+        this.virtualThreads = virtualThreads;
+
+        String[] zones = config.getAvailabilityZones(config.getRegion());
+        String zone = zones.length == 0 ? "default" : zones[0];
+        for (String serviceUrl : EndpointUtils.getServiceUrlsFromConfig(config, zone, config.shouldPreferSameZoneEureka())) {
+            endpoints.add(new DefaultEndpoint(serviceUrl));
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalStateException("No Eureka service URL configured for zone " + zone);
+        }
+        this.clients = new EurekaHttpClient[endpoints.size()];
+        // only identifies the client to the Eureka servers
+        InstanceInfo identity = InstanceInfo.Builder.newBuilder()
+                .setAppName(applicationName)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+        this.transportClientFactory = clientFactories.newTransportClientFactory(config, Collections.emptyList(), identity);
+    }
+
+    /**
+     * Fetches the application, then keeps refreshing it in the background every registry fetch interval, on a
+     * dedicated thread or on virtual threads timed by the shared scheduler.
+     */
+    void start() {
+        refresh();
+        long intervalMillis = TimeUnit.SECONDS.toMillis(config.getRegistryFetchIntervalSeconds());
+        if (virtualThreads) {
+            stopRefresh = DiscoveryThreads.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis,
+                    DiscoveryThreads.newThreadFactory("hz-eureka-refresh", true));
+            return;
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                DiscoveryThreads.newThreadFactory("hz-eureka-refresh", false));
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        stopRefresh = executor::shutdownNow;
+    }
+
+    /**
+     * @return the application as of the last refresh, {@code null} if it is not registered in Eureka. Fetched
+     * first if no refresh succeeded yet.
+     */
+    Application getApplication() {
+        if (lastSuccessfulRefreshMillis < 0) {
+            refresh();
+        }
+        return application;
+    }
+
+    /**
+     * @return milliseconds since the last successful refresh, {@code -1} if none succeeded yet
+     */
+    long getLastSuccessfulRefreshAgeMillis() {
+        long refreshMillis = lastSuccessfulRefreshMillis;
+        return refreshMillis < 0 ? -1 : System.currentTimeMillis() - refreshMillis;
+    }
+
+    void shutdown() {
+        Runnable stop = stopRefresh;
+        if (stop != null) {
+            stop.run();
+        }
+        synchronized (this) {
+            for (EurekaHttpClient client : clients) {
+                if (client != null) {
+                    client.shutdown();
+                }
+            }
+        }
+        transportClientFactory.shutdown();
+    }
+
+    /**
+     * @return {@code true} if one of the Eureka servers answered
+     */
+    synchronized boolean refresh() {
+        for (int i = 0; i < endpoints.size(); i++) {
+            int index = (currentEndpoint + i) % endpoints.size();
+            try {
+                EurekaHttpResponse<Application> response = getClient(index).getApplication(applicationName);
+                int statusCode = response.getStatusCode();
+                if (statusCode == OK || statusCode == NOT_FOUND) {
+                    currentEndpoint = index;
+                    application = statusCode == OK ? response.getEntity() : null;
+                    lastSuccessfulRefreshMillis = System.currentTimeMillis();
+                    if (application != null) {
+                        refreshListener.accept(application);
+                    }
+                    return true;
+                }
+                logger.finest("Eureka server " + endpoints.get(index).getServiceUrl() + " answered " + statusCode);
+            } catch (RuntimeException e) {
+                logger.finest("Cannot fetch application " + applicationName + " from Eureka server "
+                        + endpoints.get(index).getServiceUrl(), e);
+            }
+        }
+        logger.warning("Cannot fetch application " + applicationName + " from any of the Eureka servers " + endpoints);
+        return false;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warning("Cannot refresh application " + applicationName + " from Eureka", e);
+        }
+    }
+
+    private EurekaHttpClient getClient(int index) {
+        if (clients[index] == null) {
+            clients[index] = transportClientFactory.newClient(endpoints.get(index));
+        }
+        return clients[index];
+    }
+}
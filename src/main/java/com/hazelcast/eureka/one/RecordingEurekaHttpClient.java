@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator;
+
+/**
+ * {@link EurekaHttpClient} recording the registry responses, full registries, deltas and single applications,
+ * into a {@link TrafficRecording}.
+ */
+final class RecordingEurekaHttpClient extends EurekaHttpClientDecorator {
+
+    private final TrafficRecording.Writer recording;
+    private final EurekaHttpClient delegate;
+
+    RecordingEurekaHttpClient(TrafficRecording.Writer recording, EurekaHttpClient delegate) {
+        this.recording = recording;
+        this.delegate = delegate;
+    }
+
+    static EndpointClientDecorator decorator(TrafficRecording.Writer recording) {
+        return (endpoint, client) -> new RecordingEurekaHttpClient(recording, client);
+    }
+
+    @Override
+    protected <R> EurekaHttpResponse<R> execute(RequestExecutor<R> requestExecutor) {
+        EurekaHttpResponse<R> response = requestExecutor.execute(delegate);
+        RequestType requestType = requestExecutor.getRequestType();
+        if (requestType == RequestType.GetApplications || requestType == RequestType.GetDelta
+                || requestType == RequestType.GetApplication) {
+            recording.record(requestType, response.getStatusCode(), response.getEntity());
+        }
+        return response;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
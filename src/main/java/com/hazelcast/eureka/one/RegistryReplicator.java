@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.replicatedmap.ReplicatedMap;
+import com.netflix.discovery.shared.Application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Shares the Eureka registry of the Hazelcast application between the members of a cluster.
+ * <p>
+ * The oldest member is the leader: it keeps polling Eureka and publishes the instances of the application
+ * into a {@link ReplicatedMap} after every registry refresh. Reads of the replicated map are local, so the
+ * other members refresh their registry without any remote call. A published registry older than the
+ * configured staleness is ignored and the members poll Eureka directly again.
+ * <p>
+ * The staleness is measured against the wall clock of the leader, so it should be well above the clock
+ * skew between the members.
+ */
+final class RegistryReplicator {
+
+    static final String REPLICATED_MAP_NAME = "__eureka.registry";
+
+    private final Supplier<HazelcastInstance> hazelcastInstance;
+    private final String applicationName;
+    private final long maxStalenessMillis;
+    private final ILogger logger;
+    private final LongSupplier clock;
+
+    RegistryReplicator(Supplier<HazelcastInstance> hazelcastInstance, String applicationName, long maxStalenessMillis,
+                       ILogger logger) {
+        this(hazelcastInstance, applicationName, maxStalenessMillis, logger, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    RegistryReplicator(Supplier<HazelcastInstance> hazelcastInstance, String applicationName, long maxStalenessMillis,
+                       ILogger logger, LongSupplier clock) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.applicationName = applicationName;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.logger = logger;
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code true} if the local member is the oldest member of a running cluster
+     */
+    boolean isLeader() {
+        HazelcastInstance instance = hazelcastInstance.get();
+        return instance != null && isLeader(instance);
+    }
+
+    /**
+     * Publishes the registry of the application if the local member is the leader.
+     */
+    void publish(Application application) {
+        HazelcastInstance instance = hazelcastInstance.get();
+        if (instance == null || !isLeader(instance)) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(clock.getAsLong());
+            RegistrySnapshot.write(application, out);
+            getReplicatedMap(instance).put(applicationName, bytes.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Cannot publish the registry of " + applicationName + " to the cluster", e);
+        }
+    }
+
+    /**
+     * @return the registry published by the leader, or {@code null} if the local member is the leader itself,
+     * is not part of a running cluster or the published registry is missing or stale
+     */
+    Application getReplicatedApplication() {
+        HazelcastInstance instance = hazelcastInstance.get();
+        if (instance == null) {
+            return null;
+        }
+        try {
+            if (isLeader(instance)) {
+                return null;
+            }
+            byte[] published = getReplicatedMap(instance).get(applicationName);
+            return published == null ? null : read(published);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Cannot read the registry of " + applicationName + " published in the cluster", e);
+            return null;
+        }
+    }
+
+    private Application read(byte[] published) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(published));
+        long age = clock.getAsLong() - in.readLong();
+        if (age > maxStalenessMillis) {
+            if (logger.isFineEnabled()) {
+                logger.fine("Registry of " + applicationName + " published in the cluster is stale (" + age + " ms)");
+            }
+            return null;
+        }
+        return RegistrySnapshot.read(in);
+    }
+
+    private static boolean isLeader(HazelcastInstance instance) {
+        Iterator<Member> members = instance.getCluster().getMembers().iterator();
+        return members.hasNext() && members.next().localMember();
+    }
+
+    private static ReplicatedMap<String, byte[]> getReplicatedMap(HazelcastInstance instance) {
+        return instance.getReplicatedMap(REPLICATED_MAP_NAME);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact binary representation of the instances of a single Eureka {@link Application}.
+ * <p>
+ * Only the fields needed to discover Hazelcast members are kept: instance id, host name, IP address,
+ * port, status and the metadata map. Instances and metadata are written in a stable order, so an unchanged
+ * application always results in the same bytes.
+ */
+final class RegistrySnapshot {
+
+    private static final int MAGIC = 0x48455253;
+    private static final byte VERSION = 1;
+
+    private RegistrySnapshot() {
+    }
+
+    static void write(Application application, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeUTF(application.getName());
+
+        List<InstanceInfo> instances = new ArrayList<>(application.getInstancesAsIsFromEureka());
+        instances.sort(Comparator.comparing(InstanceInfo::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        data.writeInt(instances.size());
+        for (InstanceInfo instance : instances) {
+            writeString(data, instance.getId());
+            writeString(data, instance.getHostName());
+            writeString(data, instance.getIPAddr());
+            data.writeInt(instance.getPort());
+            data.writeUTF(instance.getStatus().name());
+
+            Map<String, String> metadata = new TreeMap<>(instance.getMetadata());
+            data.writeInt(metadata.size());
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                writeString(data, entry.getKey());
+                writeString(data, entry.getValue());
+            }
+        }
+        data.flush();
+    }
+
+    static Application read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+            throw new IOException("Not a registry snapshot or unsupported snapshot version");
+        }
+        String appName = data.readUTF();
+        Application application = new Application(appName);
+
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder()
+                    .setAppName(appName)
+                    .setInstanceId(readString(data))
+                    .setHostName(readString(data))
+                    .setIPAddr(readString(data))
+                    .setPort(data.readInt())
+                    .setStatus(InstanceInfo.InstanceStatus.toEnum(data.readUTF()))
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn));
+
+            int metadataSize = data.readInt();
+            Map<String, String> metadata = new HashMap<>();
+            for (int j = 0; j < metadataSize; j++) {
+                metadata.put(readString(data), readString(data));
+            }
+            application.addInstance(builder.setMetadata(metadata).build());
+        }
+        return application;
+    }
+
+    static byte[] toBytes(Application application) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(application, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Atomically replaces the content of {@code file} with the snapshot of {@code application}.
+     */
+    static void writeTo(Path file, Application application) throws IOException {
+        writeTo(file, toBytes(application));
+    }
+
+    /**
+     * Atomically replaces the content of {@code file} with a snapshot created by {@link #toBytes(Application)}.
+     */
+    static void writeTo(Path file, byte[] snapshot) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, snapshot);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static Application readFrom(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+}
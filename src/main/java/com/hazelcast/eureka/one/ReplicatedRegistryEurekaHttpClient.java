@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator;
+import jakarta.ws.rs.core.MediaType;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+
+/**
+ * {@link EurekaHttpClient} which answers the registry refreshes of a non-leader member from the registry
+ * published by the leader of the Hazelcast cluster (see {@link RegistryReplicator}), so that only the leader
+ * polls the Eureka servers. All the other requests, and the refreshes when no fresh published registry is
+ * available, go to the Eureka server.
+ * <p>
+ * Full fetches return the {@code UP} instances of the published registry. Delta fetches return an empty delta
+ * carrying the hash code of that registry: the {@code DiscoveryClient} keeps its registry while it is
+ * unchanged and otherwise reconciles it with a full fetch, which is answered locally as well.
+ */
+final class ReplicatedRegistryEurekaHttpClient extends EurekaHttpClientDecorator {
+
+    private static final int OK = 200;
+
+    private final RegistryReplicator replicator;
+    private final EurekaHttpClient delegate;
+
+    ReplicatedRegistryEurekaHttpClient(RegistryReplicator replicator, EurekaHttpClient delegate) {
+        this.replicator = replicator;
+        this.delegate = delegate;
+    }
+
+    static EndpointClientDecorator decorator(RegistryReplicator replicator) {
+        return (endpoint, client) -> new ReplicatedRegistryEurekaHttpClient(replicator, client);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <R> EurekaHttpResponse<R> execute(RequestExecutor<R> requestExecutor) {
+        RequestType requestType = requestExecutor.getRequestType();
+        if (requestType == RequestType.GetApplications || requestType == RequestType.GetDelta) {
+            Application replicated = replicator.getReplicatedApplication();
+            if (replicated != null) {
+                Applications registry = toRegistry(replicated);
+                Applications response = requestType == RequestType.GetDelta ? emptyDelta(registry) : registry;
+                return (EurekaHttpResponse<R>) anEurekaHttpResponse(OK, response)
+                        .type(MediaType.APPLICATION_JSON_TYPE)
+                        .build();
+            }
+        }
+        return requestExecutor.execute(delegate);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private static Applications toRegistry(Application replicated) {
+        Application application = new Application(replicated.getName());
+        for (InstanceInfo instance : replicated.getInstancesAsIsFromEureka()) {
+            if (instance.getStatus() == InstanceInfo.InstanceStatus.UP) {
+                application.addInstance(instance);
+            }
+        }
+        Applications registry = new Applications();
+        registry.addApplication(application);
+        registry.setAppsHashCode(registry.getReconcileHashCode());
+        return registry;
+    }
+
+    private static Applications emptyDelta(Applications registry) {
+        Applications delta = new Applications();
+        delta.setAppsHashCode(registry.getAppsHashCode());
+        return delta;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bounded subset of the discovered nodes a member tries to join through, so a member joining a large cluster
+ * does not connect to every other member.
+ * <p>
+ * The subset contains the oldest members, most likely including the master, and is filled up with the nodes
+ * ranking highest by rendezvous hashing of the joining member and the node. The subset of a member is stable
+ * as long as the nodes do not change, and different joining members spread over different nodes.
+ * <p>
+ * The subset only applies until the member has joined. Hazelcast then keeps discovering nodes to find other
+ * clusters to merge with after a split-brain, which must see every node.
+ */
+final class SeedSubset {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final String joinerId;
+    private final int size;
+    private final int oldestMembers;
+    private final BooleanSupplier joined;
+
+    /**
+     * @param joined if the member has joined its cluster
+     */
+    SeedSubset(String joinerId, int size, int oldestMembers, BooleanSupplier joined) {
+        this.joinerId = joinerId;
+        this.size = size;
+        this.oldestMembers = Math.min(oldestMembers, size);
+        this.joined = joined;
+    }
+
+    /**
+     * @param upTimestamps when each node came up in Eureka, by index of the node
+     */
+    List<DiscoveryNode> select(List<DiscoveryNode> nodes, long[] upTimestamps) {
+        if (nodes.size() <= size || joined.getAsBoolean()) {
+            return nodes;
+        }
+        String[] addresses = new String[nodes.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = nodes.get(i).getPrivateAddress().toString();
+        }
+        List<Integer> oldest = IntStream.range(0, nodes.size()).boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> upTimestamps[i]).thenComparing(i -> addresses[i]))
+                .limit(oldestMembers)
+                .collect(Collectors.toList());
+
+        long[] scores = new long[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            scores[i] = score(addresses[i]);
+        }
+        List<DiscoveryNode> subset = new ArrayList<>(size);
+        oldest.forEach(i -> subset.add(nodes.get(i)));
+        IntStream.range(0, nodes.size())
+                .filter(i -> !oldest.contains(i))
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> scores[i]).reversed())
+                .limit(size - oldest.size())
+                .forEach(i -> subset.add(nodes.get(i)));
+        return subset;
+    }
+
+    private long score(String address) {
+        return HASH_FUNCTION.newHasher()
+                .putString(joinerId, StandardCharsets.UTF_8)
+                .putString(address, StandardCharsets.UTF_8)
+                .hash()
+                .asLong();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link Supplier} coalescing concurrent calls into a single computation: callers arriving while a computation
+ * is running wait for it and share its result, and its result is reused by the callers arriving within the TTL.
+ * Failures are propagated to the waiting callers but never reused, neither are results rejected by the
+ * {@code reusable} predicate, e.g. empty ones. Shared results should be immutable.
+ * <p>
+ * A caller interrupted while waiting keeps its interrupt status and gets the last computed result, or the
+ * fallback when there is none.
+ */
+final class SingleFlight<T> implements Supplier<T> {
+
+    private final Supplier<T> computation;
+    private final T fallback;
+    private final long ttlNanos;
+    private final Predicate<T> reusable;
+    private final LongSupplier nanoClock;
+    private final Runnable onCoalesced;
+    private final Object lock = new Object();
+
+    // guarded by lock
+    private CompletableFuture<T> inFlight;
+    private T result;
+    private T lastValue;
+    private long resultNanos;
+    private boolean hasResult;
+
+    SingleFlight(Supplier<T> computation, T fallback, long ttlMillis, Predicate<T> reusable, Runnable onCoalesced) {
+        this(computation, fallback, ttlMillis, reusable, onCoalesced, System::nanoTime);
+    }
+
+    SingleFlight(Supplier<T> computation, T fallback, long ttlMillis, Predicate<T> reusable, Runnable onCoalesced,
+                 LongSupplier nanoClock) {
+        this.computation = computation;
+        this.fallback = fallback;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.reusable = reusable;
+        this.onCoalesced = onCoalesced;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public T get() {
+        CompletableFuture<T> future;
+        synchronized (lock) {
+            if (hasResult && nanoClock.getAsLong() - resultNanos < ttlNanos) {
+                onCoalesced.run();
+                return result;
+            }
+            if (inFlight != null) {
+                future = inFlight;
+            } else {
+                inFlight = new CompletableFuture<>();
+                future = null;
+            }
+        }
+        if (future != null) {
+            onCoalesced.run();
+            return await(future);
+        }
+        return compute();
+    }
+
+    private T compute() {
+        CompletableFuture<T> future;
+        T value;
+        try {
+            value = computation.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (lock) {
+                future = inFlight;
+                inFlight = null;
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (lock) {
+            future = inFlight;
+            inFlight = null;
+            lastValue = value;
+            hasResult = reusable.test(value);
+            result = hasResult ? value : null;
+            resultNanos = nanoClock.getAsLong();
+        }
+        future.complete(value);
+        return value;
+    }
+
+    private T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (lock) {
+                return lastValue != null ? lastValue : fallback;
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.netflix.discovery.BackupRegistry;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * {@link BackupRegistry} serving the last registry snapshot persisted by the discovery strategy whose
+ * {@code DiscoveryClient} created it.
+ * <p>
+ * A strategy configured with {@code backup-registry-snapshot-file} rewrites the snapshot after every successful
+ * registry fetch which changed the instances. When the initial fetch from the Eureka servers fails, the
+ * {@code DiscoveryClient} instantiates this class (it is set as {@code backupregistry} implementation
+ * automatically) and starts with the instances found in the snapshot. Both happen within the constructor of the
+ * {@code DiscoveryClient}, which the strategy runs through {@link #withSnapshotFile(Path, Supplier)}, so every
+ * client only reads the snapshot file of its own strategy.
+ */
+public class SnapshotBackupRegistry implements BackupRegistry {
+
+    private static final ILogger LOGGER = Logger.getLogger(SnapshotBackupRegistry.class);
+    private static final ThreadLocal<Path> SNAPSHOT_FILE = new ThreadLocal<>();
+
+    private final Path snapshotFile;
+
+    public SnapshotBackupRegistry() {
+        this(SNAPSHOT_FILE.get());
+    }
+
+    SnapshotBackupRegistry(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    @Override
+    public Applications fetchRegistry() {
+        Applications applications = new Applications();
+        if (snapshotFile == null || !Files.isReadable(snapshotFile)) {
+            return applications;
+        }
+        try {
+            Application snapshot = RegistrySnapshot.readFrom(snapshotFile);
+            applications.addApplication(snapshot);
+            LOGGER.info("Using " + snapshot.getInstancesAsIsFromEureka().size() + " instance(s) of "
+                    + snapshot.getName() + " from registry snapshot " + snapshotFile);
+        } catch (IOException e) {
+            LOGGER.warning("Cannot read registry snapshot " + snapshotFile, e);
+        }
+        return applications;
+    }
+
+    @Override
+    public Applications fetchRegistry(String[] includeRemoteRegions) {
+        // snapshots are taken from the local region only
+        return fetchRegistry();
+    }
+
+    /**
+     * Constructs a {@code DiscoveryClient} whose backup registry, if it is this class, serves the given snapshot.
+     */
+    static <T> T withSnapshotFile(Path snapshotFile, Supplier<T> construction) {
+        SNAPSHOT_FILE.set(snapshotFile);
+        try {
+            return construction.get();
+        } finally {
+            SNAPSHOT_FILE.remove();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EurekaHttpClient} recording the Eureka server in use and the outcome of the registry fetches, or of the
+ * application fetches in read-only mode, into the {@link DiscoveryState}.
+ */
+final class StateTrackingEurekaHttpClient extends EurekaHttpClientDecorator {
+
+    private final DiscoveryState state;
+    private final String serviceUrl;
+    private final EurekaHttpClient delegate;
+
+    StateTrackingEurekaHttpClient(DiscoveryState state, String serviceUrl, EurekaHttpClient delegate) {
+        this.state = state;
+        this.serviceUrl = serviceUrl;
+        this.delegate = delegate;
+    }
+
+    static EndpointClientDecorator decorator(DiscoveryState state) {
+        return (endpoint, client) -> new StateTrackingEurekaHttpClient(state, endpoint.getServiceUrl(), client);
+    }
+
+    @Override
+    protected <R> EurekaHttpResponse<R> execute(RequestExecutor<R> requestExecutor) {
+        state.recordRequest(serviceUrl);
+        RequestType requestType = requestExecutor.getRequestType();
+        if (requestType != RequestType.GetApplications && requestType != RequestType.GetDelta
+                && requestType != RequestType.GetApplication) {
+            return requestExecutor.execute(delegate);
+        }
+
+        long timeMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        int statusCode = -1;
+        try {
+            EurekaHttpResponse<R> response = requestExecutor.execute(delegate);
+            statusCode = response.getStatusCode();
+            return response;
+        } finally {
+            state.recordFetch(timeMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), statusCode);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
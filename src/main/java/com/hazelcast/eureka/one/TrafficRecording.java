@@ -0,0 +1,296 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.ILogger;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator.RequestType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact, gzipped file of the registry responses seen by a {@code DiscoveryClient}: full registries, deltas and
+ * single applications, each with its time relative to the start of the recording and its status code. Payloads are
+ * stored in the JSON format of Eureka's {@link CodecWrappers.JacksonJson} codec.
+ * <p>
+ * Entries are flushed in batches, so the file of a member which did not shut down cleanly can still be read up to
+ * its last flushed entry.
+ */
+final class TrafficRecording {
+
+    private static final int MAGIC = 0x48455452;
+    private static final byte VERSION = 1;
+    private static final CodecWrapper CODEC = new CodecWrappers.JacksonJson();
+
+    /**
+     * A recorded response.
+     */
+    static final class Entry {
+
+        private final long offsetMillis;
+        private final RequestType requestType;
+        private final int statusCode;
+        private final Object entity;
+
+        Entry(long offsetMillis, RequestType requestType, int statusCode, Object entity) {
+            this.offsetMillis = offsetMillis;
+            this.requestType = requestType;
+            this.statusCode = statusCode;
+            this.entity = entity;
+        }
+
+        long getOffsetMillis() {
+            return offsetMillis;
+        }
+
+        RequestType getRequestType() {
+            return requestType;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * @return the {@link Applications} or {@link Application}, {@code null} if the response had none
+         */
+        Object getEntity() {
+            return entity;
+        }
+    }
+
+    /**
+     * Writes entries to a recording file, the previous recording if any is kept as {@code <file>.1}. Payloads are
+     * encoded by the calling thread, as the {@code DiscoveryClient} changes the registries it receives afterwards,
+     * then written by a thread of its own in batches, flushed once no entry is pending. Entries recorded while
+     * {@value #QUEUE_CAPACITY} are pending are dropped. Recording stops at the first write failure.
+     */
+    static final class Writer implements Closeable {
+
+        static final int QUEUE_CAPACITY = 64;
+
+        private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+        private static final PendingEntry END = new PendingEntry(0, null, 0, null);
+
+        private final Path file;
+        private final ILogger logger;
+        private final ThreadFactory threads;
+        private final long startMillis = System.currentTimeMillis();
+        private final BlockingQueue<PendingEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean stopped;
+        // guarded by this
+        private Thread writerThread;
+
+        Writer(Path file, ILogger logger, ThreadFactory threads) {
+            this.file = file;
+            this.logger = logger;
+            this.threads = threads;
+        }
+
+        void record(RequestType requestType, int statusCode, Object entity) {
+            if (stopped) {
+                return;
+            }
+            byte[] payload;
+            try {
+                payload = encode(entity);
+            } catch (IOException e) {
+                logger.warning("Cannot encode " + requestType + " response for Eureka traffic recording " + file, e);
+                return;
+            }
+            if (!queue.offer(new PendingEntry(System.currentTimeMillis() - startMillis, requestType, statusCode,
+                    payload))) {
+                if (dropped.getAndIncrement() == 0) {
+                    logger.warning("Eureka traffic recording " + file + " cannot keep up, dropping entries");
+                }
+                return;
+            }
+            startWriterThread();
+        }
+
+        /**
+         * @return the number of entries dropped because too many were pending
+         */
+        long getDroppedEntries() {
+            return dropped.get();
+        }
+
+        private synchronized void startWriterThread() {
+            if (writerThread == null && !stopped) {
+                writerThread = threads.newThread(this::writeEntries);
+                writerThread.start();
+            }
+        }
+
+        private void writeEntries() {
+            try (DataOutputStream out = open()) {
+                PendingEntry entry = queue.take();
+                while (entry != END) {
+                    entry.writeTo(out);
+                    entry = queue.poll();
+                    if (entry == null) {
+                        out.flush();
+                        entry = queue.take();
+                    }
+                }
+            } catch (IOException e) {
+                logger.warning("Cannot write Eureka traffic recording " + file + ", recording stopped", e);
+                stopped = true;
+                queue.clear();
+            } catch (InterruptedException e) {
+                stopped = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private DataOutputStream open() throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            if (Files.exists(file)) {
+                Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            DataOutputStream out = new DataOutputStream(
+                    new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), true));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            return out;
+        }
+
+        /**
+         * Stops recording, the entries recorded before are written unless this takes longer than
+         * {@value #CLOSE_TIMEOUT_MILLIS} ms.
+         */
+        @Override
+        public void close() {
+            Thread thread;
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                stopped = true;
+                thread = writerThread;
+            }
+            if (thread == null) {
+                return;
+            }
+            try {
+                if (queue.offer(END, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    thread.join(CLOSE_TIMEOUT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class PendingEntry {
+
+        private final long offsetMillis;
+        private final RequestType requestType;
+        private final int statusCode;
+        private final byte[] payload;
+
+        PendingEntry(long offsetMillis, RequestType requestType, int statusCode, byte[] payload) {
+            this.offsetMillis = offsetMillis;
+            this.requestType = requestType;
+            this.statusCode = statusCode;
+            this.payload = payload;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(offsetMillis);
+            out.writeUTF(requestType.name());
+            out.writeInt(statusCode);
+            out.writeInt(payload == null ? -1 : payload.length);
+            if (payload != null) {
+                out.write(payload);
+            }
+        }
+    }
+
+    private TrafficRecording() {
+    }
+
+    /**
+     * @return the entries in the order they were recorded, up to the last complete one
+     */
+    static List<Entry> readFrom(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+                throw new IOException("Not a Eureka traffic recording or unsupported recording version");
+            }
+            List<Entry> entries = new ArrayList<>();
+            try {
+                while (true) {
+                    entries.add(readEntry(data));
+                }
+            } catch (EOFException e) {
+                // end of the recording, or of what was flushed before the member stopped
+                return entries;
+            }
+        }
+    }
+
+    private static Entry readEntry(DataInputStream data) throws IOException {
+        long offsetMillis = data.readLong();
+        RequestType requestType = RequestType.valueOf(data.readUTF());
+        int statusCode = data.readInt();
+        int length = data.readInt();
+        Object entity = null;
+        if (length >= 0) {
+            byte[] payload = new byte[length];
+            data.readFully(payload);
+            Class<?> type = requestType == RequestType.GetApplication ? Application.class : Applications.class;
+            entity = CODEC.decode(new ByteArrayInputStream(payload), type);
+        }
+        return new Entry(offsetMillis, requestType, statusCode, entity);
+    }
+
+    private static byte[] encode(Object entity) throws IOException {
+        if (entity == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CODEC.encode(entity, out);
+        return out.toByteArray();
+    }
+}
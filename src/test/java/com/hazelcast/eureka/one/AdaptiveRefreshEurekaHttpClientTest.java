@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveRefreshEurekaHttpClientTest {
+
+    private static final String APP_NAME = "HAZELCAST-TEST";
+    private static final long MIN_MILLIS = 10000;
+    private static final long MAX_MILLIS = 40000;
+
+    @Mock
+    private EurekaHttpClient delegate;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicBoolean forming = new AtomicBoolean();
+    private AdaptiveRefreshInterval interval;
+    private AdaptiveRefreshEurekaHttpClient client;
+
+    @Before
+    public void setup() {
+        interval = new AdaptiveRefreshInterval(APP_NAME, MIN_MILLIS, MAX_MILLIS, forming::get, nanoTime::get);
+        client = new AdaptiveRefreshEurekaHttpClient(interval, delegate);
+    }
+
+    @Test
+    public void shouldSlowDownWhileApplicationIsStable() {
+        Applications registry = newApplications(newInstance("a"));
+        registry.setAppsHashCode("UP_1_");
+        when(delegate.getApplications()).thenReturn(ok(registry));
+        when(delegate.getDelta()).thenReturn(ok(emptyDelta("UP_1_")));
+
+        client.getApplications();
+        assertThat(interval.getIntervalMillis(), is(MIN_MILLIS));
+
+        // answered locally, with the hash code of the fetched registry
+        advanceMillis(5000);
+        EurekaHttpResponse<Applications> delta = client.getDelta();
+        assertThat(delta.getStatusCode(), is(200));
+        assertThat(delta.getEntity().getRegisteredApplications().isEmpty(), is(true));
+        assertThat(delta.getEntity().getAppsHashCode(), is("UP_1_"));
+        verify(delegate, times(0)).getDelta();
+
+        advanceMillis(5000);
+        client.getDelta();
+        verify(delegate, times(1)).getDelta();
+        assertThat(interval.getIntervalMillis(), is(2 * MIN_MILLIS));
+
+        advanceMillis(10000);
+        client.getDelta();
+        verify(delegate, times(1)).getDelta();
+
+        advanceMillis(10000);
+        client.getDelta();
+        assertThat(interval.getIntervalMillis(), is(MAX_MILLIS));
+
+        advanceMillis(40000);
+        client.getDelta();
+        verify(delegate, times(3)).getDelta();
+        assertThat(interval.getIntervalMillis(), is(MAX_MILLIS));
+    }
+
+    @Test
+    public void shouldSpeedUpWhenApplicationChanges() {
+        Applications registry = newApplications(newInstance("a"));
+        registry.setAppsHashCode("UP_1_");
+        InstanceInfo added = newInstance("b");
+        added.setActionType(InstanceInfo.ActionType.ADDED);
+        Applications delta = newApplications(added);
+        delta.setAppsHashCode("UP_2_");
+        when(delegate.getApplications()).thenReturn(ok(registry));
+        when(delegate.getDelta()).thenReturn(ok(emptyDelta("UP_1_")), ok(delta));
+
+        client.getApplications();
+        advanceMillis(MIN_MILLIS);
+        client.getDelta();
+        assertThat(interval.getIntervalMillis(), is(2 * MIN_MILLIS));
+
+        advanceMillis(2 * MIN_MILLIS);
+        client.getDelta();
+
+        assertThat(interval.getIntervalMillis(), is(MIN_MILLIS));
+        assertThat(interval.getAppsHashCode(), is("UP_2_"));
+    }
+
+    @Test
+    public void shouldFetchWhenMembershipChanges() {
+        Applications registry = newApplications(newInstance("a"));
+        registry.setAppsHashCode("UP_1_");
+        when(delegate.getApplications()).thenReturn(ok(registry));
+        when(delegate.getDelta()).thenReturn(ok(emptyDelta("UP_1_")));
+        client.getApplications();
+        advanceMillis(MIN_MILLIS);
+        client.getDelta();
+
+        interval.requestFetch();
+        client.getDelta();
+
+        verify(delegate, times(2)).getDelta();
+        assertThat(interval.getIntervalMillis(), is(MIN_MILLIS * 2));
+    }
+
+    @Test
+    public void shouldFetchWhileClusterIsForming() {
+        Applications registry = newApplications(newInstance("a"));
+        registry.setAppsHashCode("UP_1_");
+        when(delegate.getApplications()).thenReturn(ok(registry));
+        when(delegate.getDelta()).thenReturn(ok(emptyDelta("UP_1_")));
+        client.getApplications();
+
+        forming.set(true);
+        client.getDelta();
+        client.getDelta();
+
+        verify(delegate, times(2)).getDelta();
+    }
+
+    @Test
+    public void shouldAnswerApplicationFromLastFetch() {
+        Application application = newApplications(newInstance("a")).getRegisteredApplications(APP_NAME);
+        EurekaHttpResponse<Application> response = anEurekaHttpResponse(200, application)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .build();
+        when(delegate.getApplication(APP_NAME)).thenReturn(response);
+
+        client.getApplication(APP_NAME);
+        advanceMillis(5000);
+        EurekaHttpResponse<Application> local = client.getApplication(APP_NAME);
+
+        assertThat(local.getEntity().getByInstanceId("a").getIPAddr(), is("10.0.0.0"));
+        verify(delegate, times(1)).getApplication(APP_NAME);
+
+        advanceMillis(5000);
+        client.getApplication(APP_NAME);
+        verify(delegate, times(2)).getApplication(APP_NAME);
+    }
+
+    private void advanceMillis(long millis) {
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static EurekaHttpResponse<Applications> ok(Applications applications) {
+        return anEurekaHttpResponse(200, applications)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .build();
+    }
+
+    private static Applications emptyDelta(String appsHashCode) {
+        Applications delta = new Applications();
+        delta.setAppsHashCode(appsHashCode);
+        return delta;
+    }
+
+    private static Applications newApplications(InstanceInfo... instances) {
+        Application application = new Application(APP_NAME);
+        for (InstanceInfo instance : instances) {
+            application.addInstance(instance);
+        }
+        Applications applications = new Applications();
+        applications.addApplication(application);
+        return applications;
+    }
+
+    private static InstanceInfo newInstance(String id) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(APP_NAME)
+                .setInstanceId(id)
+                .setHostName("host-" + id)
+                .setIPAddr("10.0.0." + (id.charAt(0) - 'a'))
+                .setPort(5701)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.collect.Iterables;
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.config.ConfigurationManager;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Fails when the bytes allocated by the discovery and configuration hot paths exceed the budgets in
+ * {@code allocation-budget.properties}, measured with the allocation counter of the calling thread.
+ */
+public class AllocationBudgetTest {
+
+    private static final int INSTANCES = 100;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // consumes the results so the measured calls are not optimized away
+    private static volatile long sink;
+
+    private final Properties budgets = new Properties();
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported());
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("allocation-budget.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    @Test
+    public void discoverNodesShouldStayWithinBudget() throws IOException {
+        EurekaStandInServer server = new EurekaStandInServer().start();
+        EurekaOneDiscoveryStrategy strategy = null;
+        try {
+            for (int i = 0; i < INSTANCES; i++) {
+                server.register(newInstance(i));
+            }
+            Map<String, Comparable> properties = getProperties(server);
+            properties.put("discovery-result-ttl-millis", 0);
+            strategy = new EurekaOneDiscoveryStrategyBuilder().setProperties(properties).build();
+            strategy.start();
+            EurekaOneDiscoveryStrategy discovery = strategy;
+            assertThat(Iterables.size(discovery.discoverNodes()), is(INSTANCES));
+
+            long bytes = measure(() -> sink += Iterables.size(discovery.discoverNodes()), 2_000, 500);
+
+            assertWithinBudget("discoverNodes.bytesPerInstance", bytes / INSTANCES);
+        } finally {
+            if (strategy != null) {
+                strategy.destroy();
+            }
+            server.stop();
+        }
+    }
+
+    @Test
+    public void configGettersShouldStayWithinBudget() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hazelcast.serviceUrl.default", "http://127.0.0.1:8080/eureka/v2/");
+        PropertyBasedEurekaClientConfig config = new PropertyBasedEurekaClientConfig("hazelcast", properties);
+        Map<String, Runnable> getters = new LinkedHashMap<>();
+        getters.put("getRegistryFetchIntervalSeconds", () -> sink += config.getRegistryFetchIntervalSeconds());
+        getters.put("getInstanceInfoReplicationIntervalSeconds",
+                () -> sink += config.getInstanceInfoReplicationIntervalSeconds());
+        getters.put("shouldFetchRegistry", () -> sink += config.shouldFetchRegistry() ? 1 : 0);
+        getters.put("shouldDisableDelta", () -> sink += config.shouldDisableDelta() ? 1 : 0);
+        getters.put("shouldFilterOnlyUpInstances", () -> sink += config.shouldFilterOnlyUpInstances() ? 1 : 0);
+        getters.put("shouldLogDeltaDiff", () -> sink += config.shouldLogDeltaDiff() ? 1 : 0);
+        getters.put("fetchRegistryForRemoteRegions",
+                () -> sink += String.valueOf(config.fetchRegistryForRemoteRegions()).length());
+        getters.put("getRegistryRefreshSingleVipAddress",
+                () -> sink += String.valueOf(config.getRegistryRefreshSingleVipAddress()).length());
+        getters.put("getRegion", () -> sink += config.getRegion().length());
+        getters.put("getAvailabilityZones", () -> sink += config.getAvailabilityZones("us-east-1").length);
+        getters.put("getEurekaServerServiceUrls", () -> sink += config.getEurekaServerServiceUrls("defaultZone").size());
+
+        for (Map.Entry<String, Runnable> getter : getters.entrySet()) {
+            assertWithinBudget("config." + getter.getKey(), measure(getter.getValue(), 20_000, 10_000));
+        }
+    }
+
+    /**
+     * @return the average bytes allocated by a call after the warm-up calls
+     */
+    private static long measure(Runnable call, int warmupCalls, int measuredCalls) {
+        for (int i = 0; i < warmupCalls; i++) {
+            call.run();
+        }
+        long start = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < measuredCalls; i++) {
+            call.run();
+        }
+        return (THREADS.getCurrentThreadAllocatedBytes() - start) / measuredCalls;
+    }
+
+    private void assertWithinBudget(String key, long bytes) {
+        long budget = Long.parseLong(budgets.getProperty(key));
+        assertThat(key + " allocates " + bytes + " bytes, the budget is " + budget, bytes <= budget, is(true));
+    }
+
+    /**
+     * The Eureka client is configured through archaius: only one {@link PropertyBasedEurekaClientConfig} can be
+     * created per JVM, and {@link #configGettersShouldStayWithinBudget()} needs it.
+     */
+    private static Map<String, Comparable> getProperties(EurekaStandInServer server) {
+        AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+        configInstance.setProperty("hazelcast.serviceUrl.default", server.getServiceUrl());
+        configInstance.setProperty("hazelcast.registration.enabled", false);
+        Map<String, Comparable> properties = new HashMap<>();
+        properties.put("use-classpath-eureka-client-props", true);
+        return properties;
+    }
+
+    private static InstanceInfo newInstance(int i) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName("hazelcast-test")
+                .setInstanceId("i-" + i)
+                .setHostName("member-" + i)
+                .setIPAddr("10.0." + (i / 256) + "." + (i % 256))
+                .setPort(5701)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.NoLogFactory;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.AmazonInfo.MetaDataKey;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class AmazonInfoCacheTest {
+
+    private static final long TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, String> metadata = new ConcurrentHashMap<>();
+    private final AtomicInteger metadataRequests = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+    private HttpServer server;
+    private boolean serverStopped;
+    private Path cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        metadata.put("instance-id", "i-1");
+        metadata.put("ami-id", "ami-1");
+        metadata.put("instance-type", "m5.large");
+        metadata.put("local-ipv4", "127.0.0.1");
+        metadata.put("local-hostname", "localhost.ec2.internal");
+        metadata.put("placement/availability-zone", "us-east-1a");
+        metadata.put("mac", "0e:00:00:00:00:01");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/latest/api/token", exchange -> respond(exchange, 200, "token-1"));
+        server.createContext("/latest/meta-data/", exchange -> {
+            metadataRequests.incrementAndGet();
+            String token = exchange.getRequestHeaders().getFirst("X-aws-ec2-metadata-token");
+            String value = metadata.get(exchange.getRequestURI().getPath().substring("/latest/meta-data/".length()));
+            if (!"token-1".equals(token)) {
+                respond(exchange, 401, "");
+            } else if (value == null) {
+                respond(exchange, 404, "");
+            } else {
+                respond(exchange, 200, value);
+            }
+        });
+        server.start();
+        cacheFile = folder.getRoot().toPath().resolve("amazon-info.properties");
+    }
+
+    @After
+    public void tearDown() {
+        stopServer();
+    }
+
+    @Test
+    public void shouldResolveAndCacheAmazonInfo() throws IOException {
+        AmazonInfo info = newCache().load();
+
+        assertThat(info.getId(), is("i-1"));
+        assertThat(info.get(MetaDataKey.availabilityZone), is("us-east-1a"));
+        assertThat(info.get(MetaDataKey.publicHostname), nullValue());
+        assertThat(Files.exists(cacheFile), is(true));
+    }
+
+    @Test
+    public void shouldValidateCachedAmazonInfoWithSingleCall() throws IOException {
+        newCache().load();
+        metadataRequests.set(0);
+
+        AmazonInfo info = newCache().load();
+
+        assertThat(info.get(MetaDataKey.localIpv4), is("127.0.0.1"));
+        assertThat(metadataRequests.get(), is(1));
+    }
+
+    @Test
+    public void shouldResolveAmazonInfoOfAnotherInstance() throws IOException {
+        newCache().load();
+        metadata.put("instance-id", "i-2");
+        metadata.put("local-ipv4", "10.0.0.2");
+
+        AmazonInfo info = newCache().load();
+
+        assertThat(info.getId(), is("i-2"));
+        assertThat(info.get(MetaDataKey.localIpv4), is("10.0.0.2"));
+    }
+
+    @Test
+    public void shouldUseCachedAmazonInfoWhenMetadataServiceIsUnavailable() throws IOException {
+        newCache().load();
+        stopServer();
+
+        AmazonInfo info = newCache().load();
+
+        assertThat(info.getId(), is("i-1"));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotUseCachedAmazonInfoOfAnotherHostWhenMetadataServiceIsUnavailable() throws IOException {
+        // TEST-NET-1, never bound locally
+        metadata.put("local-ipv4", "192.0.2.1");
+        newCache().load();
+        stopServer();
+
+        newCache().load();
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailWithoutCacheWhenMetadataServiceIsUnavailable() throws IOException {
+        stopServer();
+
+        newCache().load();
+    }
+
+    @Test
+    public void shouldRefreshStaleAmazonInfoInBackground() throws Exception {
+        newCache().load();
+        metadata.put("instance-type", "m5.xlarge");
+        clock.addAndGet(TTL_MILLIS);
+
+        AmazonInfo info = newCache().load();
+
+        assertThat(info.get(MetaDataKey.instanceType), is("m5.large"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!new String(Files.readAllBytes(cacheFile), StandardCharsets.ISO_8859_1).contains("m5.xlarge")
+                && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(newCache().load().get(MetaDataKey.instanceType), is("m5.xlarge"));
+    }
+
+    private void stopServer() {
+        if (!serverStopped) {
+            serverStopped = true;
+            server.stop(0);
+        }
+    }
+
+    private AmazonInfoCache newCache() {
+        return new AmazonInfoCache(cacheFile, TTL_MILLIS,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/latest/meta-data/", 1000,
+                new NoLogFactory().getLogger("test"), DiscoveryThreads.newThreadFactory("hz-eureka-test", false),
+                clock::get);
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
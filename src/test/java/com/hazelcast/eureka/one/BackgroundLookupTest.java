@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class BackgroundLookupTest {
+
+    private static final long REFRESH_MILLIS = 50;
+    private static final ThreadFactory THREADS = DiscoveryThreads.newThreadFactory("test-lookup", false);
+
+    @Test(timeout = 10000)
+    public void shouldNotWaitForLookup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BackgroundLookup<String> lookup = new BackgroundLookup<>(() -> {
+            await(release);
+            return "found";
+        }, null, THREADS, REFRESH_MILLIS);
+
+        assertThat(lookup.get(), nullValue());
+        assertThat(lookup.get(), nullValue());
+
+        release.countDown();
+        while (lookup.get() == null) {
+            TimeUnit.MILLISECONDS.sleep(REFRESH_MILLIS);
+        }
+        assertThat(lookup.get(), is("found"));
+    }
+
+    @Test(timeout = 10000)
+    public void shouldShareSingleLookupBetweenCallers() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+        BackgroundLookup<Integer> lookup = new BackgroundLookup<>(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(REFRESH_MILLIS);
+            running.decrementAndGet();
+            return runs.incrementAndGet();
+        }, 0, THREADS, REFRESH_MILLIS);
+
+        long deadline = System.currentTimeMillis() + 10 * REFRESH_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            lookup.get();
+        }
+
+        assertThat(maxRunning.get(), is(1));
+        // one lookup plus one pause per run at most
+        assertThat(runs.get() <= 6, is(true));
+    }
+
+    @Test(timeout = 10000)
+    public void shouldKeepPreviousValueWhenLookupFails() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        BackgroundLookup<String> lookup = new BackgroundLookup<>(() -> {
+            if (runs.incrementAndGet() > 1) {
+                throw new IllegalStateException("expected");
+            }
+            return "found";
+        }, null, THREADS, REFRESH_MILLIS);
+
+        while (runs.get() < 3) {
+            lookup.get();
+            TimeUnit.MILLISECONDS.sleep(REFRESH_MILLIS);
+        }
+
+        assertThat(lookup.get(), is("found"));
+    }
+
+    @Test(timeout = 10000)
+    public void shouldStopLookingUpWhenStopped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        BackgroundLookup<Integer> lookup = new BackgroundLookup<>(() -> {
+            started.countDown();
+            try {
+                TimeUnit.SECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return runs.incrementAndGet();
+        }, 0, THREADS, REFRESH_MILLIS);
+        lookup.get();
+        started.await();
+
+        lookup.stop();
+        interrupted.await();
+        TimeUnit.MILLISECONDS.sleep(REFRESH_MILLIS);
+        int runsWhenStopped = runs.get();
+        lookup.get();
+        TimeUnit.MILLISECONDS.sleep(2 * REFRESH_MILLIS);
+
+        assertThat(runs.get(), is(runsWhenStopped));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Runs a real {@code DiscoveryClient} against {@link EurekaStandInServer} with a registry snapshot file.
+ */
+public class BackupRegistrySnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EurekaStandInServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EurekaStandInServer().start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldSnapshotInitialRegistryAndChangesOnly() throws Exception {
+        Path snapshotFile = folder.getRoot().toPath().resolve("registry.snapshot");
+        server.register(InstanceInfos.newInstance("hazelcast-test", "i-2", "127.0.0.1", 5702));
+        Map<String, Comparable> properties = server.useClasspathClientConfig("hazelcast-test");
+        properties.put("self-registration", false);
+        properties.put("backup-registry-snapshot-file", snapshotFile.toString());
+        EurekaOneDiscoveryStrategy strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setProperties(properties)
+                .setDiscoveryNode(new SimpleDiscoveryNode(new Address("127.0.0.1", 5701)))
+                .build();
+
+        try {
+            // written by the initial fetch, before any scheduled refresh
+            assertThat(Files.exists(snapshotFile), is(true));
+            assertThat(RegistrySnapshot.readFrom(snapshotFile).getInstancesAsIsFromEureka().size(), is(1));
+
+            Files.delete(snapshotFile);
+            TimeUnit.SECONDS.sleep(3);
+            // the refreshes meanwhile did not change the registry
+            assertThat(Files.exists(snapshotFile), is(false));
+
+            server.register(InstanceInfos.newInstance("hazelcast-test", "i-3", "127.0.0.1", 5703));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!Files.exists(snapshotFile) && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            assertThat(RegistrySnapshot.readFrom(snapshotFile).getInstancesAsIsFromEureka().size(), is(2));
+        } finally {
+            strategy.destroy();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.NoLogFactory;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.TransportException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CircuitBreakingEurekaHttpClientTest {
+
+    private static final String APP_NAME = "hazelcast-test";
+    private static final String ID = "instance-1";
+    private static final long OPEN_MILLIS = 30000;
+
+    @Mock
+    private EurekaHttpClient delegate;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private EndpointCircuitBreaker circuitBreaker;
+    private CircuitBreakingEurekaHttpClient client;
+
+    @Before
+    public void setup() {
+        circuitBreaker = new EndpointCircuitBreaker("http://localhost:8080/eureka/v2/", 2, OPEN_MILLIS,
+                new NoLogFactory().getLogger(CircuitBreakingEurekaHttpClientTest.class.getName()), nanoTime::get);
+        client = new CircuitBreakingEurekaHttpClient(circuitBreaker, delegate);
+    }
+
+    @Test
+    public void shouldOpenAfterConsecutiveFailures() {
+        when(delegate.sendHeartBeat(anyString(), anyString(), any(), isNull()))
+                .thenThrow(new TransportException("connect timed out"));
+
+        heartbeatFailing();
+        heartbeatFailing();
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.OPEN));
+
+        // short-circuited, the delegate is not called a third time
+        heartbeatFailing();
+        verify(delegate, times(2)).sendHeartBeat(anyString(), anyString(), any(), isNull());
+    }
+
+    @Test
+    public void shouldCountServerErrorsAsFailures() {
+        EurekaHttpResponse<Void> serverError = anEurekaHttpResponse(503).build();
+        when(delegate.cancel(APP_NAME, ID)).thenReturn(serverError);
+
+        client.cancel(APP_NAME, ID);
+        client.cancel(APP_NAME, ID);
+
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void shouldResetFailuresOnSuccess() {
+        EurekaHttpResponse<Void> ok = anEurekaHttpResponse(200).build();
+        when(delegate.cancel(APP_NAME, ID))
+                .thenThrow(new TransportException("read timed out"))
+                .thenReturn(ok)
+                .thenThrow(new TransportException("read timed out"));
+
+        cancelIgnoringFailure();
+        cancelIgnoringFailure();
+        cancelIgnoringFailure();
+
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulTrialRequest() {
+        EurekaHttpResponse<InstanceInfo> ok = anEurekaHttpResponse(200, (InstanceInfo) null).build();
+        when(delegate.sendHeartBeat(anyString(), anyString(), any(), isNull()))
+                .thenThrow(new TransportException("connect timed out"))
+                .thenThrow(new TransportException("connect timed out"))
+                .thenReturn(ok);
+
+        heartbeatFailing();
+        heartbeatFailing();
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+
+        client.sendHeartBeat(APP_NAME, ID, null, null);
+
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldReopenAfterFailedTrialRequest() {
+        when(delegate.sendHeartBeat(anyString(), anyString(), any(), isNull()))
+                .thenThrow(new TransportException("connect timed out"));
+
+        heartbeatFailing();
+        heartbeatFailing();
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+        heartbeatFailing();
+
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.OPEN));
+        heartbeatFailing();
+        verify(delegate, times(3)).sendHeartBeat(anyString(), anyString(), any(), isNull());
+    }
+
+    @Test
+    public void shouldNotCountRateLimitedRequestsAsFailures() {
+        EurekaHttpResponse<Applications> ok = anEurekaHttpResponse(200, new Applications()).build();
+        when(delegate.getApplications()).thenReturn(ok);
+        EurekaHttpClient limited = newRateLimitedClient(new EurekaRequestRateLimiter(1, 1, 0, nanoTime::get));
+
+        assertThat(limited.getApplications(), is(ok));
+        getApplicationsRateLimited(limited);
+        getApplicationsRateLimited(limited);
+
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.CLOSED));
+        verify(delegate, times(1)).getApplications();
+    }
+
+    @Test
+    public void shouldTryNextRequestWhenTrialRequestIsRateLimited() {
+        EurekaHttpResponse<Applications> ok = anEurekaHttpResponse(200, new Applications()).build();
+        when(delegate.getApplications())
+                .thenThrow(new TransportException("connect timed out"))
+                .thenThrow(new TransportException("connect timed out"))
+                .thenReturn(ok);
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(1, 1, 0, nanoTime::get);
+        EurekaHttpClient limited = newRateLimitedClient(limiter);
+
+        getApplicationsFailing(limited);
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        getApplicationsFailing(limited);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+        limiter.reserve();
+        getApplicationsRateLimited(limited);
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.OPEN));
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limited.getApplications(), is(ok));
+        assertThat(circuitBreaker.getState(), is(EndpointCircuitBreaker.State.CLOSED));
+    }
+
+    /**
+     * @return client limiting the rate inside of the circuit breaker, as the strategy decorates them
+     */
+    private EurekaHttpClient newRateLimitedClient(EurekaRequestRateLimiter limiter) {
+        return new CircuitBreakingEurekaHttpClient(circuitBreaker, new RateLimitingEurekaHttpClient(limiter, delegate));
+    }
+
+    private static void getApplicationsRateLimited(EurekaHttpClient limited) {
+        try {
+            limited.getApplications();
+            fail("RateLimitedRequestException expected");
+        } catch (RateLimitedRequestException expected) {
+            // expected
+        }
+    }
+
+    private static void getApplicationsFailing(EurekaHttpClient limited) {
+        try {
+            limited.getApplications();
+            fail("TransportException expected");
+        } catch (TransportException expected) {
+            assertThat(expected instanceof RateLimitedRequestException, is(false));
+        }
+    }
+
+    private void heartbeatFailing() {
+        try {
+            client.sendHeartBeat(APP_NAME, ID, null, null);
+            fail("TransportException expected");
+        } catch (TransportException expected) {
+            // expected
+        }
+    }
+
+    private void cancelIgnoringFailure() {
+        try {
+            client.cancel(APP_NAME, ID);
+        } catch (TransportException ignored) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cluster.Cluster;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClientMemberDiscoveryTest {
+
+    private final Address member1 = address(5701);
+    private final Address member2 = address(5702);
+    private final Address member3 = address(5703);
+
+    private final Collection<HazelcastInstance> clients = new ArrayList<>();
+    private final Set<Address> reachable = new HashSet<>();
+    private final ClientMemberDiscovery discovery = new ClientMemberDiscovery(() -> clients,
+            addresses -> addresses.stream().filter(reachable::contains).collect(Collectors.toSet()));
+
+    @Test
+    public void shouldRequireBootstrap() {
+        assertThat(discovery.getReachableMembers().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldReturnReachableBootstrappedNodes() {
+        discovery.onDiscovered(nodes(member1, member2));
+        reachable.add(member2);
+
+        List<DiscoveryNode> members = discovery.getReachableMembers();
+
+        assertThat(members.size(), is(1));
+        assertThat(members.get(0).getPrivateAddress(), is(member2));
+    }
+
+    @Test
+    public void shouldFollowMemberListOfConnectedClient() {
+        discovery.onDiscovered(nodes(member1));
+        clients.add(client(member1, member2, member3));
+        reachable.addAll(Arrays.asList(member2, member3));
+
+        List<DiscoveryNode> members = discovery.getReachableMembers();
+
+        assertThat(members.size(), is(2));
+        assertThat(members.get(0).getPrivateAddress(), is(member2));
+        assertThat(members.get(1).getPrivateAddress(), is(member3));
+    }
+
+    @Test
+    public void shouldIgnoreClientsOfOtherClusters() {
+        discovery.onDiscovered(nodes(member1));
+        clients.add(client(member2, member3));
+        reachable.addAll(Arrays.asList(member2, member3));
+
+        assertThat(discovery.getReachableMembers().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldRequireEurekaWhenNoMemberIsReachable() {
+        discovery.onDiscovered(nodes(member1, member2));
+        clients.add(client(member1, member2));
+
+        assertThat(discovery.getReachableMembers().isEmpty(), is(true));
+    }
+
+    private static HazelcastInstance client(Address... addresses) {
+        Set<Member> members = new LinkedHashSet<>();
+        for (Address address : addresses) {
+            Member member = mock(Member.class);
+            when(member.getAddress()).thenReturn(address);
+            members.add(member);
+        }
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getMembers()).thenReturn(Collections.unmodifiableSet(members));
+        HazelcastInstance client = mock(HazelcastInstance.class);
+        when(client.getCluster()).thenReturn(cluster);
+        return client;
+    }
+
+    private static List<DiscoveryNode> nodes(Address... addresses) {
+        List<DiscoveryNode> nodes = new ArrayList<>();
+        for (Address address : addresses) {
+            nodes.add(new SimpleDiscoveryNode(address));
+        }
+        return nodes;
+    }
+
+    private static Address address(int port) {
+        try {
+            return new Address("127.0.0.1", port);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
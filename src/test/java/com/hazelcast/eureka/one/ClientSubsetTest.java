@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import org.junit.Test;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ClientSubsetTest {
+
+    private final List<DiscoveryNode> nodes = new ArrayList<>();
+    private final List<InstanceInfo> instances = new ArrayList<>();
+
+    @Test
+    public void shouldPreferMembersInLocalZone() throws UnknownHostException {
+        addMember("eu-west-1a", 0);
+        addMember("eu-west-1b", 0);
+        addMember("eu-west-1b", 0);
+        addMember("eu-west-1a", 0);
+
+        List<DiscoveryNode> subset = new ClientSubset("eu-west-1b", 2).select(nodes, instances);
+
+        assertThat(subset.size(), is(2));
+        assertThat(subset.contains(nodes.get(1)), is(true));
+        assertThat(subset.contains(nodes.get(2)), is(true));
+    }
+
+    @Test
+    public void shouldPreferLightlyLoadedMembers() throws UnknownHostException {
+        addMember(null, 50);
+        addMember(null, 0);
+
+        int lightlyLoadedFirst = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (new ClientSubset(null, 1).select(nodes, instances).get(0) == nodes.get(1)) {
+                lightlyLoadedFirst++;
+            }
+        }
+
+        assertThat(lightlyLoadedFirst > 900, is(true));
+    }
+
+    @Test
+    public void shouldReadZoneFromAmazonInfo() {
+        AmazonInfo amazonInfo = AmazonInfo.Builder.newBuilder()
+                .addMetadata(AmazonInfo.MetaDataKey.availabilityZone, "us-east-1c")
+                .build();
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder()
+                .setAppName("hazelcast-test")
+                .setHostName("host")
+                .setDataCenterInfo(amazonInfo)
+                .build();
+
+        assertThat(ClientSubset.getZone(instance), is("us-east-1c"));
+    }
+
+    private void addMember(String zone, int clientConnections) throws UnknownHostException {
+        int index = nodes.size();
+        nodes.add(new SimpleDiscoveryNode(new Address("10.0.0." + index, 5701)));
+        Map<String, String> metadata = new HashMap<>();
+        if (zone != null) {
+            metadata.put(EurekaHazelcastMetadata.HAZELCAST_ZONE, zone);
+        }
+        metadata.put(EurekaHazelcastMetadata.HAZELCAST_CLIENT_CONNECTIONS, String.valueOf(clientConnections));
+        instances.add(InstanceInfo.Builder.newBuilder()
+                .setAppName("hazelcast-test")
+                .setHostName("host-" + index)
+                .setMetadata(metadata)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build());
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.DiscoveryStrategyConfig;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.netflix.config.ConfigurationManager;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Measures how long embedded Hazelcast members, discovering each other through the plugin and an
+ * {@link EurekaStandInServer}, take to form a cluster, and how long a Hazelcast client then takes to connect.
+ * <p>
+ * Every round starts all the members at once, like a fleet deployed at the same time, and records the time from
+ * the first member start until every member sees the full membership. The Eureka clients refresh their registry
+ * every second so the measurement is dominated by joining rather than by polling. Every cluster size is measured
+ * over several rounds and reported as minimum, median and maximum.
+ * <p>
+ * Not run by the default build, {@code mvn test -P benchmark} runs it for the cluster sizes and rounds of the
+ * {@code benchmark.cluster-sizes} and {@code benchmark.rounds} system properties. The results are written to
+ * {@value #RESULTS_FILE} and the run fails when a median is slower than in {@code cluster-formation-baseline.properties}
+ * by more than the tolerance of the baseline.
+ * <p>
+ * Larger clusters are not part of the default run: started at once in a single JVM they often split into several
+ * clusters which only merge after the first merge delay of Hazelcast, so their times are too spread to compare.
+ */
+public class ClusterFormationBenchmark {
+
+    static final String RESULTS_FILE = "target/benchmarks/cluster-formation.properties";
+
+    private static final String APPLICATION_NAME = "hazelcast-formation";
+    private static final long FORMATION_TIMEOUT_SECONDS = 600;
+    private static final String TOLERANCE_PERCENT = "tolerance-percent";
+
+    @Test
+    public void clusterFormationShouldStayWithinBaseline() throws Exception {
+        String[] clusterSizes = System.getProperty("benchmark.cluster-sizes", "2,8").split(",");
+        int rounds = Integer.getInteger("benchmark.rounds", 3);
+
+        Map<String, Long> results = new TreeMap<>();
+        for (String clusterSize : clusterSizes) {
+            int members = Integer.parseInt(clusterSize.trim());
+            List<Long> formationMillis = new ArrayList<>();
+            List<Long> clientMillis = new ArrayList<>();
+            for (int round = 0; round < rounds; round++) {
+                long[] result = runRound(members);
+                formationMillis.add(result[0]);
+                clientMillis.add(result[1]);
+            }
+            summarize(results, "formation." + members, formationMillis);
+            summarize(results, "client." + members, clientMillis);
+        }
+        write(results, Paths.get(RESULTS_FILE));
+
+        List<String> regressions = compareWithBaseline(results, loadBaseline());
+        assertThat("Slower than the baseline: " + regressions, regressions.isEmpty(), is(true));
+    }
+
+    /**
+     * @return the results slower than their baseline by more than the tolerance, results without a baseline
+     * are not compared
+     */
+    static List<String> compareWithBaseline(Map<String, Long> results, Properties baseline) {
+        long tolerancePercent = Long.parseLong(baseline.getProperty(TOLERANCE_PERCENT));
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Long> result : results.entrySet()) {
+            String expected = baseline.getProperty(result.getKey());
+            if (expected == null) {
+                continue;
+            }
+            long limit = Long.parseLong(expected) * (100 + tolerancePercent) / 100;
+            if (result.getValue() > limit) {
+                regressions.add(result.getKey() + "=" + result.getValue() + " (baseline " + expected + ")");
+            }
+        }
+        return regressions;
+    }
+
+    private static Properties loadBaseline() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = ClusterFormationBenchmark.class.getClassLoader()
+                .getResourceAsStream("cluster-formation-baseline.properties")) {
+            baseline.load(in);
+        }
+        return baseline;
+    }
+
+    private static void write(Map<String, Long> results, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            writer.write("# milliseconds, <measurement>.<members>.<min|median|max>\n");
+            for (Map.Entry<String, Long> result : results.entrySet()) {
+                writer.write(result.getKey() + "=" + result.getValue() + "\n");
+            }
+        }
+    }
+
+    /**
+     * @return the cluster formation and the client connection time
+     */
+    private static long[] runRound(int members) throws Exception {
+        EurekaStandInServer server = new EurekaStandInServer().start();
+        ExecutorService executor = Executors.newFixedThreadPool(members);
+        try {
+            Config config = newMemberConfig(server);
+            long start = System.nanoTime();
+            List<Future<HazelcastInstance>> starts = new ArrayList<>();
+            for (int i = 0; i < members; i++) {
+                starts.add(executor.submit(() -> Hazelcast.newHazelcastInstance(config)));
+            }
+            List<HazelcastInstance> instances = new ArrayList<>();
+            for (Future<HazelcastInstance> instance : starts) {
+                instances.add(instance.get());
+            }
+            awaitMembership(instances, start);
+            long formationNanos = System.nanoTime() - start;
+
+            long clientStart = System.nanoTime();
+            HazelcastClient.newHazelcastClient(newClientConfig(server));
+            long clientNanos = System.nanoTime() - clientStart;
+
+            return new long[]{TimeUnit.NANOSECONDS.toMillis(formationNanos), TimeUnit.NANOSECONDS.toMillis(clientNanos)};
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+            executor.shutdown();
+            server.stop();
+        }
+    }
+
+    private static void awaitMembership(List<HazelcastInstance> instances, long start) throws InterruptedException {
+        long deadline = start + TimeUnit.SECONDS.toNanos(FORMATION_TIMEOUT_SECONDS);
+        for (HazelcastInstance instance : instances) {
+            while (instance.getCluster().getMembers().size() < instances.size()) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Cluster of " + instances.size() + " members did not form");
+                }
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+    }
+
+    private static Config newMemberConfig(EurekaStandInServer server) {
+        Config config = new Config();
+        config.setProperty("hazelcast.discovery.enabled", "true");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(false);
+        join.getDiscoveryConfig().addDiscoveryStrategyConfig(
+                new DiscoveryStrategyConfig(new EurekaOneDiscoveryStrategyFactory(), getProperties(server, true)));
+        return config;
+    }
+
+    private static ClientConfig newClientConfig(EurekaStandInServer server) {
+        ClientConfig config = new ClientConfig();
+        config.setProperty("hazelcast.discovery.enabled", "true");
+        config.getNetworkConfig().getDiscoveryConfig().addDiscoveryStrategyConfig(
+                new DiscoveryStrategyConfig(new EurekaOneDiscoveryStrategyFactory(), getProperties(server, false)));
+        return config;
+    }
+
+    /**
+     * Archaius accepts a single property based Eureka client config per JVM, so the members and the client
+     * share the classpath config, pointed at the stand-in server of the round.
+     */
+    private static Map<String, Comparable> getProperties(EurekaStandInServer server, boolean member) {
+        AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+        configInstance.setProperty("hazelcast.name", APPLICATION_NAME);
+        configInstance.setProperty("hazelcast.serviceUrl.default", server.getServiceUrl());
+        configInstance.setProperty("hazelcast.client.refresh.interval", 1);
+        Map<String, Comparable> properties = new HashMap<>();
+        properties.put("use-classpath-eureka-client-props", "true");
+        properties.put("skip-eureka-registration-verification", "true");
+        properties.put("self-registration", String.valueOf(member));
+        return properties;
+    }
+
+    private static void summarize(Map<String, Long> results, String key, List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        results.put(key + ".min", sorted.get(0));
+        results.put(key + ".median", sorted.get(sorted.size() / 2));
+        results.put(key + ".max", sorted.get(sorted.size() - 1));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DiscoveryJfrEventsTest extends AbstractEurekaOneDiscoveryStrategyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Override
+    protected void initializeStrategy() {
+        EurekaOneDiscoveryStrategyBuilder builder = new EurekaOneDiscoveryStrategyBuilder();
+        builder.setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager);
+        strategy = builder.build();
+    }
+
+    @Test
+    public void shouldRecordDiscoveryEvents() throws Exception {
+        Application application = new Application();
+        List<InstanceInfo> infoList = InstanceInfoGenerator.newBuilder(3, 1).build().toInstanceList();
+        for (InstanceInfo info : infoList) {
+            info.setStatus(InstanceInfo.InstanceStatus.UP);
+            application.addInstance(info);
+        }
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+
+        List<RecordedEvent> events = record(strategy::discoverNodes,
+                "com.hazelcast.eureka.DiscoverNodes", "com.hazelcast.eureka.AddressResolution");
+
+        List<RecordedEvent> discoveries = byName(events, "com.hazelcast.eureka.DiscoverNodes");
+        assertThat(discoveries.size(), is(1));
+        assertThat(discoveries.get(0).getString("application"), is(APPLICATION_NAME));
+        assertThat(discoveries.get(0).getInt("eurekaInstances"), is(3));
+        assertThat(discoveries.get(0).getInt("discoveredNodes"), is(3));
+        List<RecordedEvent> resolutions = byName(events, "com.hazelcast.eureka.AddressResolution");
+        assertThat(resolutions.size(), is(3));
+        Set<String> hosts = infoList.stream().map(InstanceInfo::getIPAddr).collect(Collectors.toSet());
+        for (RecordedEvent resolution : resolutions) {
+            assertThat(hosts.contains(resolution.getString("host")), is(true));
+            assertThat(resolution.getBoolean("resolved"), is(true));
+        }
+    }
+
+    @Test
+    public void shouldRecordFailedAddressResolution() throws Exception {
+        Application application = new Application();
+        InstanceInfo unresolvable = mock(InstanceInfo.class);
+        when(unresolvable.getId()).thenReturn("unresolvable");
+        when(unresolvable.getStatus()).thenReturn(InstanceInfo.InstanceStatus.UP);
+        when(unresolvable.getIPAddr()).thenReturn("...");
+        application.addInstance(unresolvable);
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+
+        List<RecordedEvent> events = record(strategy::discoverNodes, "com.hazelcast.eureka.AddressResolution");
+
+        List<RecordedEvent> resolutions = byName(events, "com.hazelcast.eureka.AddressResolution");
+        assertThat(resolutions.size(), is(1));
+        assertThat(resolutions.get(0).getString("host"), is("..."));
+        assertThat(resolutions.get(0).getBoolean("resolved"), is(false));
+    }
+
+    @Test
+    public void shouldRecordRegistrationVerification() throws Exception {
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(new Application(APPLICATION_NAME));
+
+        List<RecordedEvent> events = record(strategy::verifyEurekaRegistration,
+                "com.hazelcast.eureka.RegistrationVerification");
+
+        List<RecordedEvent> verifications = byName(events, "com.hazelcast.eureka.RegistrationVerification");
+        assertThat(verifications.size(), is(1));
+        assertThat(verifications.get(0).getString("application"), is(APPLICATION_NAME));
+        assertThat(verifications.get(0).getInt("attempts"), is(1));
+    }
+
+    @Test
+    public void shouldRecordShutdown() throws Exception {
+        List<RecordedEvent> events = record(strategy::destroy, "com.hazelcast.eureka.Shutdown");
+
+        List<RecordedEvent> shutdowns = byName(events, "com.hazelcast.eureka.Shutdown");
+        assertThat(shutdowns.size(), is(1));
+        assertThat(shutdowns.get(0).getString("application"), is(APPLICATION_NAME));
+    }
+
+    private List<RecordedEvent> record(Runnable action, String... eventNames) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("discovery.jfr");
+        try (Recording recording = new Recording()) {
+            for (String eventName : eventNames) {
+                recording.enable(eventName).withoutThreshold();
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
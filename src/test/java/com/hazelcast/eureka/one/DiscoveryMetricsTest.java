@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class DiscoveryMetricsTest {
+
+    private final DiscoveryMetrics metrics = new DiscoveryMetrics(() -> 1500L);
+
+    @Test
+    public void shouldBucketLatenciesByPowersOfTwoMillis() {
+        assertThat(DiscoveryMetrics.latencyBucket(TimeUnit.MICROSECONDS.toNanos(500)), is(0));
+        assertThat(DiscoveryMetrics.latencyBucket(TimeUnit.MILLISECONDS.toNanos(1)), is(1));
+        assertThat(DiscoveryMetrics.latencyBucket(TimeUnit.MILLISECONDS.toNanos(3)), is(2));
+        assertThat(DiscoveryMetrics.latencyBucket(TimeUnit.MILLISECONDS.toNanos(4)), is(3));
+        assertThat(DiscoveryMetrics.latencyBucket(TimeUnit.MINUTES.toNanos(10)), is(DiscoveryMetrics.LATENCY_BUCKETS - 1));
+    }
+
+    @Test
+    public void shouldRecordDiscoverNodesCalls() {
+        metrics.recordDiscoverNodes(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordDiscoverNodes(TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertThat(metrics.getDiscoverNodesCount(), is(2L));
+        assertThat(metrics.getDiscoverNodesLatency(2), is(2L));
+    }
+
+    @Test
+    public void shouldRegisterMBean() throws Exception {
+        ObjectName name = DiscoveryMetrics.objectName("127.0.0.1:5701");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.recordInstance(FilterReason.ACCEPTED);
+        metrics.recordInstance(FilterReason.GROUP_MISMATCH);
+        metrics.recordDiscoverNodes(TimeUnit.MILLISECONDS.toNanos(3));
+
+        metrics.registerAs("127.0.0.1:5701");
+        metrics.registerAs("127.0.0.1:5701");
+        try {
+            assertThat(server.getAttribute(name, "instancesSeen"), is(2L));
+            assertThat(server.getAttribute(name, "filteredGroupMismatch"), is(1L));
+            assertThat(server.getAttribute(name, "registryStaleness"), is(1500L));
+            long[] histogram = (long[]) server.getAttribute(name, DiscoveryMetrics.LATENCY_HISTOGRAM);
+            assertThat(histogram.length, is(DiscoveryMetrics.LATENCY_BUCKETS));
+            assertThat(histogram[2], is(1L));
+            assertThat(server.getAttributes(name, new String[]{"instancesSeen", "unknown"}).size(), is(1));
+        } finally {
+            metrics.deregister();
+        }
+
+        assertThat(server.isRegistered(name), is(false));
+    }
+}
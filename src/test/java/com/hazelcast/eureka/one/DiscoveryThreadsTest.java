@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assume.assumeTrue;
+
+public class DiscoveryThreadsTest {
+
+    @Test
+    public void shouldCreatePlatformDaemonThreads() {
+        Thread thread = DiscoveryThreads.newThreadFactory("hz-eureka-test", false).newThread(() -> {
+        });
+
+        assertThat(thread.getName(), is("hz-eureka-test"));
+        assertThat(thread.isDaemon(), is(true));
+    }
+
+    @Test
+    public void shouldCreateVirtualThreads() throws Exception {
+        assumeTrue(DiscoveryThreads.isVirtualThreadSupported());
+
+        Thread thread = DiscoveryThreads.newThreadFactory("hz-eureka-test", true).newThread(() -> {
+        });
+
+        assertThat(thread.getName(), is("hz-eureka-test-0"));
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+    }
+
+    @Test
+    public void shouldRunScheduledTaskUntilCancelled() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch ranTwice = new CountDownLatch(2);
+        Runnable cancel = DiscoveryThreads.scheduleWithFixedDelay(() -> {
+            runs.incrementAndGet();
+            ranTwice.countDown();
+        }, 10, DiscoveryThreads.newThreadFactory("hz-eureka-test", true));
+
+        assertThat(ranTwice.await(10, TimeUnit.SECONDS), is(true));
+        cancel.run();
+        // a run may have been started before the cancellation
+        TimeUnit.MILLISECONDS.sleep(50);
+        int cancelledRuns = runs.get();
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertThat(runs.get(), is(cancelledRuns));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.ILogger;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.TransportException;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EurekaDiagnosticsTest {
+
+    private static final String APP_NAME = "hazelcast-test";
+    private static final String SERVICE_URL = "http://localhost:8080/eureka/v2/";
+
+    private final InstanceInfo localInstance = InstanceInfo.Builder.newBuilder()
+            .setAppName(APP_NAME)
+            .setInstanceId("instance-0")
+            .setHostName("host-0")
+            .setStatus(InstanceInfo.InstanceStatus.UP)
+            .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+            .build();
+    private final DiscoveryState state = new DiscoveryState("hazelcast", () -> localInstance);
+    private final ILogger logger = mock(ILogger.class);
+    private final EurekaDiagnostics diagnostics = new EurekaDiagnostics(logger, 50, state,
+            DiscoveryThreads.newThreadFactory("test-diagnostics", false));
+
+    @Test
+    public void shouldTrackRegistryFetches() {
+        EurekaHttpClient client = new StateTrackingEurekaHttpClient(state, SERVICE_URL,
+                new FakeEurekaHttpClient(new Applications()));
+
+        client.getApplications();
+
+        assertThat(state.getEurekaServer(), is(SERVICE_URL));
+        assertThat(state.getLastFetchTimeMillis() > 0, is(true));
+        assertThat(state.getLastFetchStatusCode(), is(200));
+    }
+
+    @Test
+    public void shouldTrackFailedRegistryFetches() {
+        EurekaHttpClient delegate = mock(EurekaHttpClient.class);
+        when(delegate.getDelta()).thenThrow(new TransportException("connect timed out"));
+        EurekaHttpClient client = new StateTrackingEurekaHttpClient(state, SERVICE_URL, delegate);
+
+        try {
+            client.getDelta();
+            fail("TransportException expected");
+        } catch (TransportException expected) {
+            assertThat(state.getLastFetchStatusCode(), is(-1));
+        }
+    }
+
+    @Test
+    public void shouldFormatState() {
+        state.recordRequest(SERVICE_URL);
+        state.recordDiscovery(System.currentTimeMillis(), Arrays.asList(
+                new DiscoveryState.InstanceOutcome("instance-1", "10.0.0.1:5701", FilterReason.ACCEPTED),
+                new DiscoveryState.InstanceOutcome("instance-2", "10.0.0.2:5701", FilterReason.NOT_UP)));
+
+        String formatted = diagnostics.format();
+
+        assertThat(formatted, containsString("EurekaDiscovery[namespace=hazelcast, appName=" + localInstance.getAppName()
+                + ", instanceId=instance-0, status=UP, eurekaServer=" + SERVICE_URL + ", lastFetchTimeMillis=-1"));
+        assertThat(formatted, containsString("instance-1 10.0.0.1:5701 ACCEPTED"));
+        assertThat(formatted, containsString("instance-2 10.0.0.2:5701 NOT_UP"));
+    }
+
+    @Test
+    public void shouldWriteStatePeriodically() {
+        diagnostics.start();
+        try {
+            verify(logger, timeout(5000).atLeast(2)).info(contains("EurekaDiscovery[namespace=hazelcast"));
+        } finally {
+            diagnostics.stop();
+        }
+    }
+}
@@ -15,9 +15,13 @@
 
 package com.hazelcast.eureka.one;
 
+import com.hazelcast.cluster.Address;
 import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
 import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.util.InstanceInfoGenerator;
 import org.apache.commons.lang.RandomStringUtils;
@@ -26,11 +30,22 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -105,6 +120,38 @@ public class EurekaOneDiscoveryStrategyTest extends AbstractEurekaOneDiscoverySt
         assertThat(nodes.iterator().hasNext(), is(false));
     }
 
+    @Test
+    public void shouldRecordFilteredInstancesInMetrics() {
+        Application application = new Application();
+        List<InstanceInfo> infoList = InstanceInfoGenerator
+                .newBuilder(3, 1)
+                .build()
+                .toInstanceList();
+        infoList.get(0).setStatus(InstanceInfo.InstanceStatus.DOWN);
+        infoList.get(1).setStatus(InstanceInfo.InstanceStatus.UP);
+        infoList.get(2).setStatus(InstanceInfo.InstanceStatus.UP);
+        for (InstanceInfo info : infoList) {
+            application.addInstance(info);
+        }
+        InstanceInfo unresolvable = mock(InstanceInfo.class);
+        when(unresolvable.getId()).thenReturn(RandomStringUtils.random(42));
+        when(unresolvable.getStatus()).thenReturn(InstanceInfo.InstanceStatus.UP);
+        when(unresolvable.getIPAddr()).thenReturn("...");
+        application.addInstance(unresolvable);
+
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+
+        strategy.discoverNodes();
+
+        DiscoveryMetrics metrics = strategy.getMetrics();
+        assertThat(metrics.getDiscoverNodesCount(), is(1L));
+        assertThat(metrics.getInstancesSeen(), is(4L));
+        assertThat(metrics.getInstances(FilterReason.ACCEPTED), is(2L));
+        assertThat(metrics.getInstances(FilterReason.NOT_UP), is(1L));
+        assertThat(metrics.getInstances(FilterReason.UNRESOLVABLE), is(1L));
+        assertThat(metrics.getRetries(), is(0L));
+    }
+
     @Test
     public void shouldContinueVerifyRegistrationWhenEurekaClientThrowException() {
         when(eurekaClient.getApplication(APPLICATION_NAME))
@@ -113,6 +160,7 @@ public class EurekaOneDiscoveryStrategyTest extends AbstractEurekaOneDiscoverySt
 
         strategy.verifyEurekaRegistration();
         verify(eurekaClient, times(2)).getApplication(eq(APPLICATION_NAME));
+        assertThat(strategy.getMetrics().getRegistrationVerificationAttempts(), is(2L));
     }
 
     @Test
@@ -124,8 +172,219 @@ public class EurekaOneDiscoveryStrategyTest extends AbstractEurekaOneDiscoverySt
         verify(eurekaClient, times(EurekaOneDiscoveryStrategy.NUM_RETRIES)).getApplication(APPLICATION_NAME);
 
         assertThat(actual.iterator().hasNext(), is(false));
+        assertThat(strategy.getMetrics().getRetries(), is((long) EurekaOneDiscoveryStrategy.NUM_RETRIES - 1));
+    }
+
+
+    @Test
+    public void shouldReturnLastGoodNodesWhenEurekaFails() {
+        Application application = new Application();
+        InstanceInfo info = InstanceInfoGenerator.takeOne();
+        info.setStatus(InstanceInfo.InstanceStatus.UP);
+        application.addInstance(info);
+        when(eurekaClient.getApplication(APPLICATION_NAME))
+                .thenReturn(application)
+                .thenReturn(null);
+        strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager)
+                .setDiscoveryNode(node)
+                .setProperties(Collections.singletonMap("discovery-result-ttl-millis", 0))
+                .build();
+
+        strategy.discoverNodes();
+        Iterable<DiscoveryNode> nodes = strategy.discoverNodes();
+
+        assertThat(nodes.iterator().next().getPublicAddress().getHost(), is(info.getIPAddr()));
+        assertThat(strategy.getMetrics().getStaleResults(), is(1L));
+        // no blocking retries while the last good nodes can be returned
+        assertThat(strategy.getMetrics().getRetries(), is(0L));
+    }
+
+    @Test
+    public void shouldNotQueryEurekaOnceDestroyed() {
+        strategy.destroy();
+
+        assertThat(strategy.discoverNodes().iterator().hasNext(), is(false));
+        verify(eurekaClient, never()).getApplication(APPLICATION_NAME);
+    }
+
+    @Test
+    public void shouldReuseRecentDiscoveryResult() {
+        Application application = new Application();
+        application.addInstance(newInstance("member", "10.0.0.1", System.currentTimeMillis()));
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+        strategy = newStrategyWithDiscoveryResultTtl();
+
+        Iterable<DiscoveryNode> nodes = strategy.discoverNodes();
+
+        assertThat(strategy.discoverNodes(), sameInstance(nodes));
+        verify(eurekaClient).getApplication(APPLICATION_NAME);
+        assertThat(strategy.getMetrics().getDiscoverNodesCoalesced(), is(1L));
+    }
+
+    @Test
+    public void shouldNotReuseEmptyDiscoveryResult() {
+        Application application = new Application();
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+        strategy = newStrategyWithDiscoveryResultTtl();
+
+        assertThat(strategy.discoverNodes().iterator().hasNext(), is(false));
+        application.addInstance(newInstance("member", "10.0.0.1", System.currentTimeMillis()));
+
+        assertThat(strategy.discoverNodes().iterator().hasNext(), is(true));
+        assertThat(strategy.getMetrics().getDiscoverNodesCoalesced(), is(0L));
     }
 
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldShareUnmodifiableDiscoveryResult() {
+        Application application = new Application();
+        application.addInstance(newInstance("member", "10.0.0.1", System.currentTimeMillis()));
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+
+        Iterator<DiscoveryNode> nodes = strategy.discoverNodes().iterator();
+        nodes.next();
+        nodes.remove();
+    }
+
+    @Test
+    public void shouldDeriveStableInstanceIdFromAddressAndClusterName() throws UnknownHostException {
+        Address address = new Address("10.0.0.1", 5701);
+
+        assertThat(EurekaOneDiscoveryStrategy.stableInstanceId(address, "dev", null), is("10.0.0.1:5701:dev"));
+        assertThat(EurekaOneDiscoveryStrategy.stableInstanceId(address, "dev", "blue"), is("10.0.0.1:5701:dev:blue"));
+    }
+
+    @Test
+    public void shouldNotPublishLocalMetadataWithoutFeatureNeedingLocalInstance() {
+        strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager)
+                .setDiscoveryNode(node)
+                .build();
+
+        assertThat(strategy.discoverLocalMetadata().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldPublishLocalInstanceTokenWhenRegistryReplicationIsEnabled() {
+        strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager)
+                .setDiscoveryNode(node)
+                .setProperties(Collections.singletonMap("registry-replication-enabled", true))
+                .build();
+
+        assertThat(strategy.discoverLocalMetadata().containsKey(LocalHazelcastInstance.TOKEN_ATTRIBUTE), is(true));
+    }
+
+    @Test
+    public void shouldDiscoverMostRecentlyRenewedInstancePerAddressOnly() {
+        long now = System.currentTimeMillis();
+        Application application = new Application();
+        application.addInstance(newInstance("ghost", "10.0.0.1", now - 60000));
+        application.addInstance(newInstance("current", "10.0.0.1", now));
+        application.addInstance(newInstance("expired", "10.0.0.2", now - TimeUnit.MINUTES.toMillis(10)));
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+        strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager)
+                .setDiscoveryNode(node)
+                .setProperties(Collections.singletonMap("max-lease-renewal-age-seconds", 300))
+                .build();
+
+        Iterator<DiscoveryNode> nodes = strategy.discoverNodes().iterator();
+
+        assertThat(nodes.next().getPrivateAddress().getHost(), is("10.0.0.1"));
+        assertThat(nodes.hasNext(), is(false));
+        assertThat(strategy.getMetrics().getInstances(FilterReason.DUPLICATE), is(1L));
+        assertThat(strategy.getMetrics().getInstances(FilterReason.LEASE_EXPIRED), is(1L));
+    }
+
+    @Test
+    public void shouldDelayRegistrationByJitter() {
+        StatusChangeStrategy updater = mock(StatusChangeStrategy.class);
+        when(updater.shouldRegister()).thenReturn(true);
+        AtomicLong registeredAt = new AtomicLong();
+        doAnswer(invocation -> {
+            registeredAt.set(System.nanoTime());
+            return null;
+        }).when(updater).update(applicationInfoManager, InstanceInfo.InstanceStatus.UP);
+        Map<String, Comparable> properties = new HashMap<>();
+        properties.put("schedule-jitter-seconds", 1);
+        properties.put("skip-eureka-registration-verification", true);
+        do {
+            strategy = new EurekaOneDiscoveryStrategyBuilder()
+                    .setEurekaClient(eurekaClient)
+                    .setApplicationInfoManager(applicationInfoManager)
+                    .setDiscoveryNode(node)
+                    .setStatusChangeStrategy(updater)
+                    .setProperties(properties)
+                    .build();
+        } while (strategy.getRegistrationJitterSeconds() == 0);
+
+        long start = System.nanoTime();
+        strategy.start();
+
+        assertThat(registeredAt.get() - start >= TimeUnit.SECONDS.toNanos(1), is(true));
+    }
+
+    @Test
+    public void shouldDiscoverReachableNodesFirst() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            int closedPort = closedPort();
+            Application application = new Application();
+            application.addInstance(newInstance("closed", "127.0.0.1", closedPort, System.currentTimeMillis()));
+            application.addInstance(newInstance("open", "127.0.0.1", serverSocket.getLocalPort(),
+                    System.currentTimeMillis()));
+            when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+            strategy = new EurekaOneDiscoveryStrategyBuilder()
+                    .setEurekaClient(eurekaClient)
+                    .setApplicationInfoManager(applicationInfoManager)
+                    .setDiscoveryNode(node)
+                    .setProperties(Collections.singletonMap("reachability-probe-budget-millis", 1000))
+                    .build();
+
+            Iterator<DiscoveryNode> nodes = strategy.discoverNodes().iterator();
+
+            assertThat(nodes.next().getPrivateAddress().getPort(), is(serverSocket.getLocalPort()));
+            assertThat(nodes.next().getPrivateAddress().getPort(), is(closedPort));
+            assertThat(nodes.hasNext(), is(false));
+        }
+    }
+
+    @Test
+    public void shouldDropUnreachableNodesUnlessNoneIsReachable() throws IOException {
+        Map<String, Comparable> properties = new HashMap<>();
+        properties.put("reachability-probe-budget-millis", 1000);
+        properties.put("reachability-probe-drop-unreachable", true);
+        properties.put("discovery-result-ttl-millis", 0);
+        int closedPort = closedPort();
+        Application application = new Application();
+        application.addInstance(newInstance("closed", "127.0.0.1", closedPort, System.currentTimeMillis()));
+        when(eurekaClient.getApplication(APPLICATION_NAME)).thenReturn(application);
+        strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager)
+                .setDiscoveryNode(node)
+                .setProperties(properties)
+                .build();
+
+        // none reachable, nothing dropped
+        Iterator<DiscoveryNode> nodes = strategy.discoverNodes().iterator();
+        assertThat(nodes.next().getPrivateAddress().getPort(), is(closedPort));
+        assertThat(nodes.hasNext(), is(false));
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            application.addInstance(newInstance("open", "127.0.0.1", serverSocket.getLocalPort(),
+                    System.currentTimeMillis()));
+
+            nodes = strategy.discoverNodes().iterator();
+
+            assertThat(nodes.next().getPrivateAddress().getPort(), is(serverSocket.getLocalPort()));
+            assertThat(nodes.hasNext(), is(false));
+        }
+    }
 
     @Test
     public void shouldEscalateWhenErrorCaughtInVerification(){
@@ -146,4 +405,35 @@ public class EurekaOneDiscoveryStrategyTest extends AbstractEurekaOneDiscoverySt
         verify(eurekaClient).shutdown();
     }
 
-}
\ No newline at end of file
+    private EurekaOneDiscoveryStrategy newStrategyWithDiscoveryResultTtl() {
+        return new EurekaOneDiscoveryStrategyBuilder()
+                .setEurekaClient(eurekaClient)
+                .setApplicationInfoManager(applicationInfoManager)
+                .setDiscoveryNode(node)
+                .setProperties(Collections.singletonMap("discovery-result-ttl-millis", 1000))
+                .build();
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    private static InstanceInfo newInstance(String id, String ipAddress, long renewalTimestamp) {
+        return newInstance(id, ipAddress, 5701, renewalTimestamp);
+    }
+
+    private static InstanceInfo newInstance(String id, String ipAddress, int port, long renewalTimestamp) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName("hazelcast-test")
+                .setInstanceId(id)
+                .setHostName(id)
+                .setIPAddr(ipAddress)
+                .setPort(port)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder().setRenewalTimestamp(renewalTimestamp).build())
+                .build();
+    }
+}
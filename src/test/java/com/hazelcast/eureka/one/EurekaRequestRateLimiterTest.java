@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EurekaRequestRateLimiterTest {
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    public void shouldLetBurstThroughWithoutWaiting() {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(2, 3, MAX_WAIT_NANOS, nanoTime::get);
+
+        assertThat(limiter.reserve(), is(0L));
+        assertThat(limiter.reserve(), is(0L));
+        assertThat(limiter.reserve(), is(0L));
+    }
+
+    @Test
+    public void shouldSpreadRequestsAboveRate() {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(2, 1, MAX_WAIT_NANOS, nanoTime::get);
+
+        assertThat(limiter.reserve(), is(0L));
+        assertThat(limiter.reserve(), is(TimeUnit.MILLISECONDS.toNanos(500)));
+        assertThat(limiter.reserve(), is(TimeUnit.MILLISECONDS.toNanos(1000)));
+    }
+
+    @Test
+    public void shouldRefillUpToBurst() {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(10, 2, MAX_WAIT_NANOS, nanoTime::get);
+        limiter.reserve();
+        limiter.reserve();
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertThat(limiter.reserve(), is(0L));
+        assertThat(limiter.reserve(), is(0L));
+        assertThat(limiter.reserve(), is(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    public void shouldShareLimiterOfSameRate() {
+        assertThat(EurekaRequestRateLimiter.shared(5, 5, MAX_WAIT_NANOS)
+                == EurekaRequestRateLimiter.shared(5, 5, MAX_WAIT_NANOS), is(true));
+        assertThat(EurekaRequestRateLimiter.shared(5, 5, MAX_WAIT_NANOS)
+                == EurekaRequestRateLimiter.shared(5, 1, MAX_WAIT_NANOS), is(false));
+    }
+
+    @Test
+    public void shouldFailFastBeyondMaxWait() {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(2, 1, MAX_WAIT_NANOS, nanoTime::get);
+        limiter.reserve();
+        limiter.reserve();
+        limiter.reserve();
+
+        assertThat(limiter.reserve(), is(-1L));
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.reserve(), is(TimeUnit.MILLISECONDS.toNanos(1000)));
+    }
+
+    @Test
+    public void shouldGiveTokenBackWhenInterrupted() throws Exception {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(2, 1, MAX_WAIT_NANOS, nanoTime::get);
+        limiter.reserve();
+        Thread.currentThread().interrupt();
+
+        boolean interrupted = false;
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+
+        assertThat(interrupted, is(true));
+        assertThat(limiter.reserve(), is(TimeUnit.MILLISECONDS.toNanos(500)));
+    }
+
+    @Test
+    public void shouldNotLimitHeartbeats() {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(1, 1, 0, nanoTime::get);
+        EurekaHttpClient delegate = mock(EurekaHttpClient.class);
+        EurekaHttpResponse<InstanceInfo> ok = EurekaHttpResponse.anEurekaHttpResponse(200, InstanceInfo.class).build();
+        when(delegate.sendHeartBeat("app", "id", null, null)).thenReturn(ok);
+        RateLimitingEurekaHttpClient client = new RateLimitingEurekaHttpClient(limiter, delegate);
+        limiter.reserve();
+
+        assertThat(client.sendHeartBeat("app", "id", null, null), is(ok));
+        assertThat(client.sendHeartBeat("app", "id", null, null), is(ok));
+    }
+
+    @Test(expected = RateLimitedRequestException.class)
+    public void shouldNotSendRequestBeyondMaxWait() {
+        EurekaRequestRateLimiter limiter = new EurekaRequestRateLimiter(1, 1, 0, nanoTime::get);
+        RateLimitingEurekaHttpClient client = new RateLimitingEurekaHttpClient(limiter, mock(EurekaHttpClient.class));
+        limiter.reserve();
+
+        client.getApplications();
+    }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.configuration.AbstractConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-memory Eureka server stand-in, served over HTTP by the JDK HTTP server, so a real
+ * {@link com.netflix.discovery.DiscoveryClient} can be exercised and benchmarked without a Eureka server.
+ * <p>
+ * It implements the part of the Eureka REST API the client uses: registration, lease renewal, status updates,
+ * cancellation, the full registry, the registry delta and single applications. Unlike
+ * {@code SimpleEurekaHttpServer}, which hands every request to a mocked handler, the stand-in keeps its own
+ * registry and serves requests concurrently. The registry can be pre-populated with synthetic applications,
+ * and requests can be delayed or failed to simulate a slow or unhealthy server. Requests are counted per
+ * endpoint, together with the response bytes and the CPU time spent serving them.
+ */
+final class EurekaStandInServer {
+
+    enum Endpoint {
+        REGISTER,
+        HEARTBEAT,
+        STATUS_UPDATE,
+        CANCEL,
+        GET_APPLICATIONS,
+        GET_DELTA,
+        GET_APPLICATION
+    }
+
+    /**
+     * How long changes are kept for the delta, as by the Eureka server.
+     */
+    static final long DELTA_RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(3);
+
+    private static final String CONTEXT = "/eureka/v2/";
+    private static final String JSON = "application/json";
+    private static final int DEFAULT_RENEWAL_INTERVAL_SECONDS = 30;
+    private static final int DEFAULT_LEASE_DURATION_SECONDS = 90;
+    /**
+     * Registries without a version make the client fetch the full registry on every refresh.
+     */
+    private static final long REGISTRY_VERSION = 1;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final class Change {
+
+        private final long timestamp;
+        private final InstanceInfo instance;
+
+        Change(long timestamp, InstanceInfo instance) {
+            this.timestamp = timestamp;
+            this.instance = instance;
+        }
+    }
+
+    private final CodecWrapper codec = new CodecWrappers.JacksonJson();
+    private final Object lock = new Object();
+    // guarded by lock: instances by id by application name
+    private final Map<String, Map<String, InstanceInfo>> registry = new TreeMap<>();
+    // guarded by lock
+    private final Deque<Change> recentChanges = new ArrayDeque<>();
+    // guarded by lock: full registry and its payload, dropped on every change
+    private Applications applications;
+    private byte[] applicationsPayload;
+
+    private final Map<Endpoint, AtomicLong> requests = new EnumMap<>(Endpoint.class);
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    EurekaStandInServer() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            requests.put(endpoint, new AtomicLong());
+        }
+    }
+
+    /**
+     * Adds synthetic instances spread over the given number of applications, e.g. to measure fetching a large
+     * registry. They are part of the initial registry, not of the delta.
+     */
+    EurekaStandInServer populate(int instances, int applicationCount) {
+        Applications synthetic = InstanceInfoGenerator.newBuilder(instances, applicationCount).build().toApplications();
+        synchronized (lock) {
+            for (Application application : synthetic.getRegisteredApplications()) {
+                for (InstanceInfo instance : application.getInstancesAsIsFromEureka()) {
+                    getApplicationInstances(instance.getAppName()).put(instance.getId(), instance);
+                }
+            }
+            applications = null;
+            applicationsPayload = null;
+        }
+        return this;
+    }
+
+    /**
+     * Delays every request by the given time.
+     */
+    EurekaStandInServer setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Fails the given share of the requests, between {@code 0} and {@code 1}, with a server error.
+     */
+    EurekaStandInServer setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    EurekaStandInServer start() throws IOException {
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "eureka-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext(CONTEXT, this::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return this;
+    }
+
+    void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the URL to configure as the {@code serviceUrl} of the Eureka client
+     */
+    String getServiceUrl() {
+        InetSocketAddress address = httpServer.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + CONTEXT;
+    }
+
+    /**
+     * Points the classpath Eureka client config of the {@code hazelcast} namespace at this server. Archaius accepts a
+     * single property based Eureka client config per JVM, so the tests running a real {@code DiscoveryClient} share
+     * the classpath config.
+     *
+     * @return the strategy properties selecting the classpath config
+     */
+    Map<String, Comparable> useClasspathClientConfig(String appName) {
+        AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+        configInstance.setProperty("hazelcast.name", appName);
+        configInstance.setProperty("hazelcast.serviceUrl.default", getServiceUrl());
+        configInstance.setProperty("hazelcast.client.refresh.interval", 1);
+        Map<String, Comparable> properties = new HashMap<>();
+        properties.put("use-classpath-eureka-client-props", true);
+        return properties;
+    }
+
+    long getRequestCount(Endpoint endpoint) {
+        return requests.get(endpoint).get();
+    }
+
+    long getRequestCount() {
+        return requests.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    long getFailedRequestCount() {
+        return failedRequests.get();
+    }
+
+    long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * @return the CPU time spent serving requests, to tell it apart from the CPU time of the clients running
+     * in the same JVM
+     */
+    long getCpuNanos() {
+        return cpuNanos.get();
+    }
+
+    void resetCounters() {
+        requests.values().forEach(counter -> counter.set(0));
+        failedRequests.set(0);
+        bytesSent.set(0);
+        cpuNanos.set(0);
+    }
+
+    /**
+     * @return copies of the registered instances of the given application
+     */
+    List<InstanceInfo> getInstances(String appName) {
+        synchronized (lock) {
+            Map<String, InstanceInfo> instances = registry.get(appName.toUpperCase(Locale.ROOT));
+            if (instances == null) {
+                return new ArrayList<>();
+            }
+            return instances.values().stream().map(InstanceInfo::new).collect(Collectors.toList());
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long cpuStart = THREADS.getCurrentThreadCpuTime();
+        try {
+            List<String> path = Arrays.stream(exchange.getRequestURI().getPath().substring(CONTEXT.length()).split("/"))
+                    .filter(segment -> !segment.isEmpty())
+                    .collect(Collectors.toList());
+            Endpoint endpoint = route(exchange.getRequestMethod(), path);
+            if (endpoint == null) {
+                send(exchange, 404, null);
+                return;
+            }
+            requests.get(endpoint).incrementAndGet();
+            delay();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failedRequests.incrementAndGet();
+                send(exchange, 500, null);
+                return;
+            }
+            handle(exchange, endpoint, path);
+        } finally {
+            exchange.close();
+            cpuNanos.addAndGet(THREADS.getCurrentThreadCpuTime() - cpuStart);
+        }
+    }
+
+    private static Endpoint route(String method, List<String> path) {
+        if (path.isEmpty() || !"apps".equals(path.get(0))) {
+            return null;
+        }
+        switch (path.size()) {
+            case 1:
+                return "GET".equals(method) ? Endpoint.GET_APPLICATIONS : null;
+            case 2:
+                if ("GET".equals(method)) {
+                    return "delta".equals(path.get(1)) ? Endpoint.GET_DELTA : Endpoint.GET_APPLICATION;
+                }
+                return "POST".equals(method) ? Endpoint.REGISTER : null;
+            case 3:
+                if ("PUT".equals(method)) {
+                    return Endpoint.HEARTBEAT;
+                }
+                return "DELETE".equals(method) ? Endpoint.CANCEL : null;
+            case 4:
+                boolean status = "status".equals(path.get(3));
+                return status && ("PUT".equals(method) || "DELETE".equals(method)) ? Endpoint.STATUS_UPDATE : null;
+            default:
+                return null;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint, List<String> path) throws IOException {
+        switch (endpoint) {
+            case REGISTER:
+                register(decodeInstance(exchange));
+                send(exchange, 204, null);
+                break;
+            case HEARTBEAT:
+                send(exchange, renew(path.get(1), path.get(2)) ? 200 : 404, null);
+                break;
+            case STATUS_UPDATE:
+                String value = "PUT".equals(exchange.getRequestMethod()) ? getQuery(exchange).get("value") : null;
+                send(exchange, updateStatus(path.get(1), path.get(2), value) ? 200 : 404, null);
+                break;
+            case CANCEL:
+                send(exchange, cancel(path.get(1), path.get(2)) ? 200 : 404, null);
+                break;
+            case GET_APPLICATIONS:
+                send(exchange, 200, getApplicationsPayload());
+                break;
+            case GET_DELTA:
+                send(exchange, 200, encode(getDelta()));
+                break;
+            case GET_APPLICATION:
+                Application application = getApplication(path.get(1));
+                send(exchange, application == null ? 404 : 200, application == null ? null : encode(application));
+                break;
+            default:
+                send(exchange, 404, null);
+        }
+    }
+
+    /**
+     * Registers the instance as if it registered itself over HTTP, without counting a request.
+     */
+    void register(InstanceInfo instance) {
+        long now = System.currentTimeMillis();
+        LeaseInfo lease = instance.getLeaseInfo();
+        instance.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                .setRenewalIntervalInSecs(lease == null ? DEFAULT_RENEWAL_INTERVAL_SECONDS : lease.getRenewalIntervalInSecs())
+                .setDurationInSecs(lease == null ? DEFAULT_LEASE_DURATION_SECONDS : lease.getDurationInSecs())
+                .setRegistrationTimestamp(now)
+                .setRenewalTimestamp(now)
+                .setServiceUpTimestamp(instance.getStatus() == InstanceStatus.UP ? now : 0)
+                .build());
+        synchronized (lock) {
+            getApplicationInstances(instance.getAppName()).put(instance.getId(), instance);
+            recordChange(now, instance, InstanceInfo.ActionType.ADDED);
+        }
+    }
+
+    private boolean renew(String appName, String id) {
+        synchronized (lock) {
+            InstanceInfo instance = getInstance(appName, id);
+            if (instance == null) {
+                // the client registers again
+                return false;
+            }
+            LeaseInfo lease = instance.getLeaseInfo();
+            instance.setLeaseInfo(copyLease(lease, System.currentTimeMillis(), lease.getServiceUpTimestamp()));
+            // renewals are not part of the delta, the next full registry carries them
+            applications = null;
+            applicationsPayload = null;
+            return true;
+        }
+    }
+
+    /**
+     * @param value the new status, {@code null} when the status override is deleted
+     */
+    private boolean updateStatus(String appName, String id, String value) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            InstanceInfo instance = getInstance(appName, id);
+            if (instance == null) {
+                return false;
+            }
+            if (value == null) {
+                instance.setOverriddenStatus(InstanceStatus.UNKNOWN);
+            } else {
+                InstanceStatus status = InstanceStatus.toEnum(value);
+                instance.setOverriddenStatus(status);
+                instance.setStatusWithoutDirty(status);
+                LeaseInfo lease = instance.getLeaseInfo();
+                if (status == InstanceStatus.UP && lease.getServiceUpTimestamp() == 0) {
+                    instance.setLeaseInfo(copyLease(lease, lease.getRenewalTimestamp(), now));
+                }
+            }
+            instance.setLastUpdatedTimestamp();
+            recordChange(now, instance, InstanceInfo.ActionType.MODIFIED);
+            return true;
+        }
+    }
+
+    private boolean cancel(String appName, String id) {
+        synchronized (lock) {
+            Map<String, InstanceInfo> instances = registry.get(appName.toUpperCase(Locale.ROOT));
+            InstanceInfo instance = instances == null ? null : instances.remove(id);
+            if (instance == null) {
+                return false;
+            }
+            if (instances.isEmpty()) {
+                registry.remove(appName.toUpperCase(Locale.ROOT));
+            }
+            recordChange(System.currentTimeMillis(), instance, InstanceInfo.ActionType.DELETED);
+            return true;
+        }
+    }
+
+    private byte[] getApplicationsPayload() throws IOException {
+        synchronized (lock) {
+            if (applicationsPayload == null) {
+                applicationsPayload = encode(getApplications());
+            }
+            return applicationsPayload;
+        }
+    }
+
+    private Applications getApplications() {
+        // guarded by lock
+        if (applications == null) {
+            Applications result = new Applications();
+            for (String appName : registry.keySet()) {
+                result.addApplication(getApplication(appName));
+            }
+            result.setAppsHashCode(result.getReconcileHashCode());
+            result.setVersion(REGISTRY_VERSION);
+            applications = result;
+        }
+        return applications;
+    }
+
+    /**
+     * @return the changes within the retention, with the hash code of the full registry the client compares
+     * its registry with after applying them
+     */
+    private Applications getDelta() {
+        synchronized (lock) {
+            purgeChanges(System.currentTimeMillis());
+            Applications delta = new Applications();
+            for (Change change : recentChanges) {
+                String appName = change.instance.getAppName();
+                Application application = delta.getRegisteredApplications(appName);
+                if (application == null) {
+                    application = new Application(appName);
+                    delta.addApplication(application);
+                }
+                application.addInstance(change.instance);
+            }
+            delta.setAppsHashCode(getApplications().getAppsHashCode());
+            delta.setVersion(REGISTRY_VERSION);
+            return delta;
+        }
+    }
+
+    private Application getApplication(String appName) {
+        synchronized (lock) {
+            Map<String, InstanceInfo> instances = registry.get(appName.toUpperCase(Locale.ROOT));
+            if (instances == null) {
+                return null;
+            }
+            Application application = new Application(appName.toUpperCase(Locale.ROOT));
+            instances.values().forEach(application::addInstance);
+            return application;
+        }
+    }
+
+    private InstanceInfo getInstance(String appName, String id) {
+        Map<String, InstanceInfo> instances = registry.get(appName.toUpperCase(Locale.ROOT));
+        return instances == null ? null : instances.get(id);
+    }
+
+    private Map<String, InstanceInfo> getApplicationInstances(String appName) {
+        return registry.computeIfAbsent(appName.toUpperCase(Locale.ROOT), name -> new LinkedHashMap<>());
+    }
+
+    private void recordChange(long now, InstanceInfo instance, InstanceInfo.ActionType actionType) {
+        // guarded by lock
+        InstanceInfo copy = new InstanceInfo(instance);
+        copy.setActionType(actionType);
+        recentChanges.addLast(new Change(now, copy));
+        purgeChanges(now);
+        applications = null;
+        applicationsPayload = null;
+    }
+
+    private void purgeChanges(long now) {
+        while (!recentChanges.isEmpty() && recentChanges.peekFirst().timestamp < now - DELTA_RETENTION_MILLIS) {
+            recentChanges.removeFirst();
+        }
+    }
+
+    private static LeaseInfo copyLease(LeaseInfo lease, long renewalTimestamp, long serviceUpTimestamp) {
+        return LeaseInfo.Builder.newBuilder()
+                .setRenewalIntervalInSecs(lease.getRenewalIntervalInSecs())
+                .setDurationInSecs(lease.getDurationInSecs())
+                .setRegistrationTimestamp(lease.getRegistrationTimestamp())
+                .setRenewalTimestamp(renewalTimestamp)
+                .setServiceUpTimestamp(serviceUpTimestamp)
+                .build();
+    }
+
+    private InstanceInfo decodeInstance(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        return codec.decode(body, InstanceInfo.class);
+    }
+
+    private static Map<String, String> getQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private byte[] encode(Object entity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.encode(entity, out);
+        return out.toByteArray();
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        bytesSent.addAndGet(body.length);
+    }
+
+    private void delay() {
+        long delay = latencyMillis;
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.hazelcast.eureka.one.EurekaStandInServer.Endpoint;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Applications;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class EurekaStandInServerTest {
+
+    private final CodecWrapper codec = new CodecWrappers.JacksonJson();
+    private EurekaStandInServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EurekaStandInServer().start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldDiscoverMemberRegisteredByDiscoveryClient() throws Exception {
+        Map<String, Comparable> properties = server.useClasspathClientConfig("hazelcast-test");
+        properties.put("skip-eureka-registration-verification", true);
+        properties.put("discovery-result-ttl-millis", 0);
+        DiscoveryNode localNode = new SimpleDiscoveryNode(new Address("127.0.0.1", 5701));
+        EurekaOneDiscoveryStrategy strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setProperties(properties)
+                .setDiscoveryNode(localNode)
+                .setStatusChangeStrategy(new DefaultUpdater())
+                .build();
+
+        strategy.start();
+        List<DiscoveryNode> nodes = discoverEventually(strategy);
+        strategy.destroy();
+
+        assertThat(nodes.size(), is(1));
+        assertThat(nodes.get(0).getPrivateAddress().getPort(), is(5701));
+        assertThat(server.getRequestCount(Endpoint.REGISTER) >= 1, is(true));
+        assertThat(server.getRequestCount(Endpoint.CANCEL), is(1L));
+        assertThat(server.getInstances("hazelcast-test").size(), is(0));
+    }
+
+    @Test
+    public void shouldServeChangesAsDelta() throws IOException {
+        server.populate(20, 4);
+
+        assertThat(request("POST", "apps/HAZELCAST-TEST", newInstance("i-1")), is(204));
+        assertThat(request("PUT", "apps/HAZELCAST-TEST/i-1/status?value=OUT_OF_SERVICE", null), is(200));
+        Applications delta = get("apps/delta");
+        Applications applications = get("apps/");
+
+        assertThat(delta.size(), is(1));
+        InstanceInfo changed = delta.getRegisteredApplications("hazelcast-test").getByInstanceId("i-1");
+        assertThat(changed.getStatus(), is(InstanceInfo.InstanceStatus.OUT_OF_SERVICE));
+        assertThat(changed.getActionType(), is(InstanceInfo.ActionType.MODIFIED));
+        assertThat(delta.getAppsHashCode(), is(applications.getAppsHashCode()));
+        assertThat(applications.size(), is(21));
+        assertThat(server.getRequestCount(), is(4L));
+        assertThat(server.getBytesSent() > 0, is(true));
+    }
+
+    @Test
+    public void shouldRenewRegisteredInstancesOnly() throws IOException {
+        assertThat(request("PUT", "apps/HAZELCAST-TEST/i-1?status=UP", null), is(404));
+        request("POST", "apps/HAZELCAST-TEST", newInstance("i-1"));
+
+        assertThat(request("PUT", "apps/HAZELCAST-TEST/i-1?status=UP", null), is(200));
+        assertThat(server.getRequestCount(Endpoint.HEARTBEAT), is(2L));
+    }
+
+    @Test
+    public void shouldInjectErrorsAndLatency() throws IOException {
+        server.setErrorRate(1);
+        assertThat(request("GET", "apps/", null), is(500));
+        assertThat(server.getFailedRequestCount(), is(1L));
+
+        server.setErrorRate(0).setLatencyMillis(200);
+        long start = System.nanoTime();
+        assertThat(request("GET", "apps/", null), is(200));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200, is(true));
+    }
+
+    private static List<DiscoveryNode> discoverEventually(EurekaOneDiscoveryStrategy strategy) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        List<DiscoveryNode> nodes = new ArrayList<>();
+        while (nodes.isEmpty() && System.nanoTime() < deadline) {
+            strategy.discoverNodes().forEach(nodes::add);
+        }
+        return nodes;
+    }
+
+    private Applications get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getServiceUrl() + path).openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            return codec.decode(in, Applications.class);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private int request(String method, String path, InstanceInfo entity) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getServiceUrl() + path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (entity != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    codec.encode(entity, out);
+                }
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static InstanceInfo newInstance(String id) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName("hazelcast-test")
+                .setInstanceId(id)
+                .setHostName(id)
+                .setIPAddr("127.0.0.1")
+                .setPort(5701)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.hazelcast.eureka.one.EurekaStandInServer.Endpoint;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.EurekaInstanceConfig;
+import com.netflix.appinfo.MyDataCenterInstanceConfig;
+import com.netflix.appinfo.providers.EurekaConfigBasedInstanceInfoProvider;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.discovery.DefaultEurekaClientConfig;
+import com.netflix.discovery.DiscoveryClient;
+import com.netflix.discovery.Jersey3DiscoveryClientOptionalArgs;
+import com.netflix.discovery.shared.transport.jersey3.Jersey3TransportClientFactories;
+import org.apache.commons.configuration.AbstractConfiguration;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates fleets of members running the discovery strategy against an {@link EurekaStandInServer}, and reports
+ * the load on the server and on the members as the fleet grows. Each member either runs its own
+ * {@code DiscoveryClient}, or all the members share one {@code DiscoveryClient} created by the application, which
+ * registers a single instance whatever the fleet size.
+ * <p>
+ * Time is compressed: the members renew their lease and refresh their registry every second instead of every
+ * {@value #TIME_COMPRESSION} seconds, so the request rates are also reported scaled back to the default intervals.
+ * For each fleet size it reports the time until every member discovers the whole fleet, then the server requests
+ * per second, response bytes per second and member CPU time in the steady state.
+ * <p>
+ * Only a small fleet is run by the build, see {@code FleetSimulationTest}. Start it manually with the fleet sizes,
+ * steady state seconds, synthetic registry size and {@code own} or {@code shared} client as optional arguments,
+ * e.g. {@code FleetSimulation 10,100,300 30 5000 shared}.
+ */
+public final class FleetSimulation {
+
+    /**
+     * Default lease renewal and registry refresh interval in seconds, simulated as one second.
+     */
+    static final int TIME_COMPRESSION = 30;
+
+    private static final String APPLICATION_NAME = "hazelcast-fleet";
+    private static final int FIRST_PORT = 5701;
+    private static final long CONVERGENCE_TIMEOUT_SECONDS = 300;
+    private static final int MAX_THREADS = 64;
+    private static final String[] COMPRESSED_TIME_PROPERTIES = {
+            "hazelcast.appinfo.replicate.interval", "hazelcast.lease.renewalInterval", "hazelcast.lease.duration"};
+
+    private FleetSimulation() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] fleetSizes = (args.length > 0 ? args[0] : "10,50,100").split(",");
+        int steadySeconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int syntheticInstances = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        boolean sharedClient = args.length > 3 && "shared".equals(args[3]);
+
+        System.out.printf("%8s %14s %10s %14s %12s %12s %14s %10s%n", "members", "convergence ms", "QPS",
+                "QPS (scaled)", "bytes/s", "heartbeat/s", "fetch/s", "CPU ms/s");
+        for (String fleetSize : fleetSizes) {
+            run(Integer.parseInt(fleetSize.trim()), steadySeconds, syntheticInstances, sharedClient);
+        }
+    }
+
+    /**
+     * @return the steady state server requests per second
+     */
+    static double run(int members, int steadySeconds, int syntheticInstances, boolean sharedClient)
+            throws Exception {
+        EurekaStandInServer server = new EurekaStandInServer().start();
+        if (syntheticInstances > 0) {
+            server.populate(syntheticInstances, Math.max(1, syntheticInstances / 100));
+        }
+        Map<String, Comparable> properties = getProperties(server);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(members, MAX_THREADS));
+        DiscoveryClient client = sharedClient ? newSharedClient() : null;
+        List<EurekaOneDiscoveryStrategy> strategies = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < members; i++) {
+                EurekaOneDiscoveryStrategy strategy = newStrategy(properties, client, FIRST_PORT + i);
+                strategies.add(strategy);
+                strategy.start();
+            }
+            // a shared client registers the application once
+            long convergenceMillis = awaitConvergence(executor, strategies, sharedClient ? 1 : members, start);
+
+            server.resetCounters();
+            long cpuStart = getProcessCpuNanos();
+            long steadyStart = System.nanoTime();
+            TimeUnit.SECONDS.sleep(steadySeconds);
+            double seconds = (System.nanoTime() - steadyStart) / (double) TimeUnit.SECONDS.toNanos(1);
+            long memberCpuNanos = getProcessCpuNanos() - cpuStart - server.getCpuNanos();
+
+            double qps = server.getRequestCount() / seconds;
+            long fetches = server.getRequestCount(Endpoint.GET_APPLICATIONS) + server.getRequestCount(Endpoint.GET_DELTA)
+                    + server.getRequestCount(Endpoint.GET_APPLICATION);
+            System.out.printf("%8d %14d %10.1f %14.2f %12.0f %12.1f %14.1f %10.1f%n", members, convergenceMillis, qps,
+                    qps / TIME_COMPRESSION, server.getBytesSent() / seconds,
+                    server.getRequestCount(Endpoint.HEARTBEAT) / seconds, fetches / seconds,
+                    TimeUnit.NANOSECONDS.toMillis(memberCpuNanos) / seconds);
+            return qps;
+        } finally {
+            List<Callable<Void>> shutdowns = new ArrayList<>();
+            for (EurekaOneDiscoveryStrategy strategy : strategies) {
+                shutdowns.add(() -> {
+                    strategy.destroy();
+                    return null;
+                });
+            }
+            executor.invokeAll(shutdowns);
+            executor.shutdown();
+            if (client != null) {
+                client.shutdown();
+            }
+            server.stop();
+            AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+            for (String key : COMPRESSED_TIME_PROPERTIES) {
+                configInstance.clearProperty(key);
+            }
+        }
+    }
+
+    /**
+     * Archaius accepts a single property based Eureka client config per JVM, so the members share the classpath
+     * config, pointed at the stand-in server of the round.
+     */
+    private static Map<String, Comparable> getProperties(EurekaStandInServer server) {
+        Map<String, Comparable> properties = server.useClasspathClientConfig(APPLICATION_NAME);
+        AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+        configInstance.setProperty("hazelcast.appinfo.replicate.interval", 1);
+        // read by the instance config of every member
+        configInstance.setProperty("hazelcast.lease.renewalInterval", 1);
+        configInstance.setProperty("hazelcast.lease.duration", 90 / TIME_COMPRESSION);
+        properties.put("skip-eureka-registration-verification", true);
+        return properties;
+    }
+
+    /**
+     * @return a client created the way an application registering itself creates it
+     */
+    private static DiscoveryClient newSharedClient() {
+        EurekaInstanceConfig instanceConfig = new MyDataCenterInstanceConfig("hazelcast");
+        ApplicationInfoManager manager = new ApplicationInfoManager(instanceConfig,
+                new EurekaConfigBasedInstanceInfoProvider(instanceConfig).get());
+        return new DiscoveryClient(manager, new DefaultEurekaClientConfig("hazelcast"),
+                Jersey3TransportClientFactories.getInstance(), new Jersey3DiscoveryClientOptionalArgs());
+    }
+
+    private static EurekaOneDiscoveryStrategy newStrategy(Map<String, Comparable> properties, DiscoveryClient client,
+                                                          int port) throws Exception {
+        return new EurekaOneDiscoveryStrategyBuilder()
+                .setProperties(properties)
+                .setEurekaClient(client)
+                .setDiscoveryNode(new SimpleDiscoveryNode(new Address("127.0.0.1", port)))
+                .setStatusChangeStrategy(new DefaultUpdater())
+                .build();
+    }
+
+    /**
+     * @return the time until every member discovered all the registered instances
+     */
+    private static long awaitConvergence(ExecutorService executor, List<EurekaOneDiscoveryStrategy> strategies,
+                                         int instances, long start) throws Exception {
+        long deadline = start + TimeUnit.SECONDS.toNanos(CONVERGENCE_TIMEOUT_SECONDS);
+        List<Future<Long>> discoveries = new ArrayList<>();
+        for (EurekaOneDiscoveryStrategy strategy : strategies) {
+            discoveries.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    int discovered = 0;
+                    for (Object ignored : strategy.discoverNodes()) {
+                        discovered++;
+                    }
+                    if (discovered >= instances) {
+                        return System.nanoTime();
+                    }
+                    TimeUnit.MILLISECONDS.sleep(100);
+                }
+                throw new IllegalStateException("Fleet of " + strategies.size() + " members did not converge");
+            }));
+        }
+        long converged = start;
+        for (Future<Long> discovery : discoveries) {
+            converged = Math.max(converged, discovery.get());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(converged - start);
+    }
+
+    private static long getProcessCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Runs {@link FleetSimulation} with a small fleet, so the simulation keeps working between manual runs.
+ */
+public class FleetSimulationTest {
+
+    private static final int MEMBERS = 3;
+
+    @Test
+    public void shouldConvergeWithOwnClients() throws Exception {
+        assertThat(FleetSimulation.run(MEMBERS, 1, 0, false) > 0, is(true));
+    }
+
+    @Test
+    public void shouldConvergeWithSharedClient() throws Exception {
+        assertThat(FleetSimulation.run(MEMBERS, 1, 0, true) > 0, is(true));
+    }
+}
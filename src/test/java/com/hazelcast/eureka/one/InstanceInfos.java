@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+
+/**
+ * Registry fixtures shared by the tests.
+ */
+final class InstanceInfos {
+
+    private InstanceInfos() {
+    }
+
+    /**
+     * @return builder of an {@code UP} instance with the host name {@code host-<id>}
+     */
+    static InstanceInfo.Builder newInstanceBuilder(String appName, String id, String ipAddress, int port) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(appName)
+                .setInstanceId(id)
+                .setHostName("host-" + id)
+                .setIPAddr(ipAddress)
+                .setPort(port)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn));
+    }
+
+    static InstanceInfo newInstance(String appName, String id, String ipAddress, int port) {
+        return newInstanceBuilder(appName, id, ipAddress, port).build();
+    }
+
+    static Applications newApplications(String appName, InstanceInfo... instances) {
+        Application application = new Application(appName);
+        for (InstanceInfo instance : instances) {
+            application.addInstance(instance);
+        }
+        Applications applications = new Applications();
+        applications.addApplication(application);
+        return applications;
+    }
+}
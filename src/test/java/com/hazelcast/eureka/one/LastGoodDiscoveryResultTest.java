@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class LastGoodDiscoveryResultTest {
+
+    private static final long MAX_STALENESS_MILLIS = 300000;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final LastGoodDiscoveryResult result = new LastGoodDiscoveryResult(MAX_STALENESS_MILLIS, nanoTime::get);
+    private final List<DiscoveryNode> nodes = Collections.singletonList(mock(DiscoveryNode.class));
+
+    @Test
+    public void shouldReturnNothingBeforeFirstUpdate() {
+        assertThat(result.getNodes(), nullValue());
+        assertThat(result.getAgeMillis(), is(-1L));
+    }
+
+    @Test
+    public void shouldReturnNodesUntilMaxStaleness() {
+        result.update(nodes);
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(MAX_STALENESS_MILLIS));
+        assertThat(result.getNodes(), sameInstance(nodes));
+        assertThat(result.getAgeMillis(), is(MAX_STALENESS_MILLIS));
+
+        nanoTime.incrementAndGet();
+        assertThat(result.getNodes(), nullValue());
+    }
+
+    @Test
+    public void shouldUpdateNodesWhenRevalidationSucceeds() throws InterruptedException {
+        result.update(Collections.emptyList());
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(MAX_STALENESS_MILLIS));
+
+        result.revalidate(() -> nodes);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (result.getNodes() != nodes && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(result.getNodes(), sameInstance(nodes));
+        assertThat(result.getAgeMillis(), is(0L));
+    }
+
+    @Test
+    public void shouldInterruptRevalidationAndDiscardItsResultWhenStopped() throws InterruptedException {
+        List<DiscoveryNode> stale = Collections.emptyList();
+        result.update(stale);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        result.revalidate(() -> {
+            started.countDown();
+            try {
+                TimeUnit.SECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return nodes;
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+
+        result.stop();
+
+        assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(result.getNodes(), sameInstance(stale));
+    }
+
+    @Test
+    public void shouldNotRevalidateOnceStopped() throws InterruptedException {
+        AtomicBoolean revalidated = new AtomicBoolean();
+        result.stop();
+
+        result.revalidate(() -> {
+            revalidated.set(true);
+            return nodes;
+        });
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(revalidated.get(), is(false));
+    }
+}
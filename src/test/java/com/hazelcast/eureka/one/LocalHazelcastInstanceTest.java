@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class LocalHazelcastInstanceTest {
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test(timeout = 60000)
+    public void shouldFindMemberCarryingLocalMetadata() throws Exception {
+        LocalHazelcastInstance localInstance = new LocalHazelcastInstance(false);
+        LocalHazelcastInstance otherInstance = new LocalHazelcastInstance(false);
+        HazelcastInstance other = newInstance(otherInstance);
+        HazelcastInstance local = newInstance(localInstance);
+
+        while (localInstance.get() == null) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        assertThat(localInstance.get(), sameInstance(local));
+        other.shutdown();
+        assertThat(localInstance.get(), sameInstance(local));
+
+        local.shutdown();
+        assertThat(localInstance.get(), nullValue());
+    }
+
+    /**
+     * The member attributes are set the way the Discovery SPI copies the local metadata of a strategy.
+     */
+    private static HazelcastInstance newInstance(LocalHazelcastInstance localInstance) {
+        Config config = new Config();
+        config.setClusterName("local-instance-test");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        localInstance.getMetadata().forEach(config.getMemberAttributeConfig()::setAttribute);
+        return Hazelcast.newHazelcastInstance(config);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.hazelcast.eureka.one.EurekaStandInServer.Endpoint;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Runs a real {@code DiscoveryClient} against {@link EurekaStandInServer} for longer than
+ * {@code max-lease-renewal-age-seconds}. Registry deltas do not carry lease renewals, so an instance which keeps
+ * renewing its lease must stay discovered only because the registry is fetched in full.
+ */
+public class MaxLeaseRenewalAgeTest {
+
+    private static final int PEER_PORT = 5702;
+
+    private EurekaStandInServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EurekaStandInServer().start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldKeepDiscoveringRenewingInstancesPastMaxLeaseRenewalAge() throws Exception {
+        Map<String, Comparable> properties = server.useClasspathClientConfig("hazelcast-test");
+        properties.put("skip-eureka-registration-verification", true);
+        properties.put("discovery-result-ttl-millis", 0);
+        properties.put("max-lease-renewal-age-seconds", 3);
+        EurekaOneDiscoveryStrategy strategy = new EurekaOneDiscoveryStrategyBuilder()
+                .setProperties(properties)
+                .setDiscoveryNode(new SimpleDiscoveryNode(new Address("127.0.0.1", 5701)))
+                .setStatusChangeStrategy(new DefaultUpdater())
+                .build();
+        server.register(newInstance("i-2"));
+
+        try {
+            strategy.start();
+            assertThat(discoverPeer(strategy, System.nanoTime() + TimeUnit.SECONDS.toNanos(30)), is(true));
+            // well past the maximum age of the renewal the peer registered with
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(8);
+            while (System.nanoTime() < end) {
+                assertThat(renew("i-2"), is(200));
+                assertThat(discoverPeer(strategy, 0), is(true));
+                TimeUnit.MILLISECONDS.sleep(500);
+            }
+        } finally {
+            strategy.destroy();
+        }
+
+        assertThat(server.getRequestCount(Endpoint.GET_DELTA), is(0L));
+        assertThat(server.getRequestCount(Endpoint.GET_APPLICATIONS) > 1, is(true));
+    }
+
+    /**
+     * @return whether the peer is discovered, trying until the deadline
+     */
+    private static boolean discoverPeer(EurekaOneDiscoveryStrategy strategy, long deadlineNanos) {
+        do {
+            for (DiscoveryNode node : strategy.discoverNodes()) {
+                if (node.getPrivateAddress().getPort() == PEER_PORT) {
+                    return true;
+                }
+            }
+        } while (System.nanoTime() < deadlineNanos);
+        return false;
+    }
+
+    private int renew(String id) throws IOException {
+        URL url = new URL(server.getServiceUrl() + "apps/HAZELCAST-TEST/" + id + "?status=UP");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("PUT");
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static InstanceInfo newInstance(String id) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName("hazelcast-test")
+                .setInstanceId(id)
+                .setHostName(id)
+                .setIPAddr("127.0.0.1")
+                .setPort(PEER_PORT)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+    }
+}
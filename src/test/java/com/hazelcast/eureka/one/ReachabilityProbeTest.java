@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assume.assumeTrue;
+
+public class ReachabilityProbeTest {
+
+    private final ReachabilityProbe probe = new ReachabilityProbe(1000);
+
+    @Test
+    public void shouldProbeAllAddressesAtOnce() throws IOException {
+        Address closed = closedAddress();
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Address open = new Address(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+
+            Set<Address> reachable = probe.apply(Arrays.asList(open, closed));
+
+            assertThat(reachable, is(Collections.singleton(open)));
+        }
+    }
+
+    @Test
+    public void shouldCacheResults() throws IOException {
+        Address address;
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            address = new Address(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+            assertThat(probe.apply(Collections.singleton(address)), is(Collections.singleton(address)));
+        }
+
+        // closed meanwhile, the cached result is still used
+        assertThat(probe.apply(Collections.singleton(address)), is(Collections.singleton(address)));
+    }
+
+    @Test
+    public void shouldGiveUpOnBlackholeWithinBudget() throws IOException {
+        try (ServerSocket blackhole = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            List<Socket> backlog = fillBacklog(blackhole);
+            try {
+                Address dropping = new Address(InetAddress.getLoopbackAddress(), blackhole.getLocalPort());
+                Address open = new Address(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+                ReachabilityProbe probe = new ReachabilityProbe(300);
+
+                long start = System.nanoTime();
+                Set<Address> reachable = probe.apply(Arrays.asList(dropping, open));
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                assertThat(reachable, is(Collections.singleton(open)));
+                assertThat(elapsedMillis >= 250, is(true));
+                assertThat(elapsedMillis < 1000, is(true));
+            } finally {
+                for (Socket socket : backlog) {
+                    socket.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldProbeConcurrently() throws Exception {
+        Address closed = closedAddress();
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Address open = new Address(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Set<Address>>> futures = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    futures.add(executor.submit(() -> probe.apply(Arrays.asList(open, closed))));
+                }
+
+                for (Future<Set<Address>> future : futures) {
+                    assertThat(future.get(10, TimeUnit.SECONDS), is(Collections.singleton(open)));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        assertThat(probe.getCachedResults(), is(2));
+    }
+
+    @Test
+    public void shouldEvictExpiredResults() throws IOException {
+        AtomicLong nanos = new AtomicLong();
+        ReachabilityProbe probe = new ReachabilityProbe(1000, nanos::get);
+        probe.apply(Collections.singleton(closedAddress()));
+        assertThat(probe.getCachedResults(), is(1));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ReachabilityProbe.CACHE_TTL_MILLIS + 1));
+        Address other = closedAddress();
+        probe.apply(Collections.singleton(other));
+
+        assertThat(probe.getCachedResults(), is(1));
+    }
+
+    /**
+     * Fills the accept queue of the never accepting server socket, so the kernel drops further SYNs.
+     */
+    private static List<Socket> fillBacklog(ServerSocket serverSocket) throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        boolean dropping = false;
+        for (int i = 0; i < 8 && !dropping; i++) {
+            Socket socket = new Socket();
+            sockets.add(socket);
+            try {
+                socket.connect(address, 200);
+            } catch (SocketTimeoutException e) {
+                dropping = true;
+            }
+        }
+        assumeTrue("SYNs to a full accept queue are not dropped on this platform", dropping);
+        return sockets;
+    }
+
+    private static Address closedAddress() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return new Address(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.google.common.collect.Iterables;
+import com.hazelcast.eureka.one.EurekaOneDiscoveryStrategy.EurekaOneDiscoveryStrategyBuilder;
+import com.hazelcast.eureka.one.EurekaStandInServer.Endpoint;
+import com.hazelcast.logging.NoLogFactory;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.discovery.DefaultEurekaClientConfig;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.transport.jersey3.Jersey3TransportClientFactories;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class ReadOnlyDiscoveryClientTest {
+
+    private static final String APP_NAME = "HAZELCAST-TEST";
+
+    private EurekaStandInServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EurekaStandInServer().start();
+        server.register(newInstance(1));
+        server.register(newInstance(2));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldDiscoverWithoutDiscoveryClient() {
+        Map<String, Comparable> properties = server.useClasspathClientConfig(APP_NAME);
+        properties.put("read-only-discovery", true);
+        properties.put("discovery-result-ttl-millis", 0);
+        EurekaOneDiscoveryStrategy strategy = new EurekaOneDiscoveryStrategyBuilder().setProperties(properties).build();
+        try {
+            strategy.start();
+
+            assertThat(Iterables.size(strategy.discoverNodes()), is(2));
+            assertThat(strategy.getEurekaClient(), nullValue());
+            assertThat(server.getRequestCount(Endpoint.GET_APPLICATION) >= 1, is(true));
+            assertThat(server.getRequestCount(Endpoint.GET_APPLICATIONS), is(0L));
+            assertThat(server.getRequestCount(Endpoint.REGISTER), is(0L));
+        } finally {
+            strategy.destroy();
+        }
+    }
+
+    @Test
+    public void shouldFailOverToNextEurekaServer() {
+        ReadOnlyDiscoveryClient client = newClient("http://127.0.0.1:1/eureka/v2/," + server.getServiceUrl(), APP_NAME);
+        try {
+            Application application = client.getApplication();
+
+            assertThat(application.getInstancesAsIsFromEureka().size(), is(2));
+            assertThat(client.getLastSuccessfulRefreshAgeMillis() >= 0, is(true));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRefreshMissingApplication() {
+        List<Application> refreshed = new ArrayList<>();
+        ReadOnlyDiscoveryClient client = newClient(server.getServiceUrl(), "UNKNOWN-APP", refreshed);
+        try {
+            assertThat(client.refresh(), is(true));
+            assertThat(client.getApplication(), nullValue());
+            assertThat(refreshed.isEmpty(), is(true));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReportUnreachableEurekaServers() {
+        ReadOnlyDiscoveryClient client = newClient("http://127.0.0.1:1/eureka/v2/", APP_NAME);
+        try {
+            assertThat(client.refresh(), is(false));
+            assertThat(client.getApplication(), nullValue());
+            assertThat(client.getLastSuccessfulRefreshAgeMillis(), is(-1L));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static ReadOnlyDiscoveryClient newClient(String serviceUrls, String appName) {
+        return newClient(serviceUrls, appName, new ArrayList<>());
+    }
+
+    /**
+     * Configured through archaius, which accepts only one {@link PropertyBasedEurekaClientConfig} per JVM.
+     */
+    private static ReadOnlyDiscoveryClient newClient(String serviceUrls, String appName, List<Application> refreshed) {
+        ConfigurationManager.getConfigInstance().setProperty("hazelcast.serviceUrl.default", serviceUrls);
+        return new ReadOnlyDiscoveryClient(new DefaultEurekaClientConfig("hazelcast"),
+                Jersey3TransportClientFactories.getInstance(), appName, refreshed::add,
+                new NoLogFactory().getLogger("test"), false);
+    }
+
+    private static InstanceInfo newInstance(int i) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(APP_NAME)
+                .setInstanceId("i-" + i)
+                .setHostName("member-" + i)
+                .setIPAddr("10.0.0." + i)
+                .setPort(5701)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+    }
+}
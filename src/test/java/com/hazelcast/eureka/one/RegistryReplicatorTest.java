@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Cluster;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.NoLogFactory;
+import com.hazelcast.replicatedmap.ReplicatedMap;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class RegistryReplicatorTest {
+
+    private static final String APP_NAME = "HAZELCAST-TEST";
+    private static final long MAX_STALENESS_MILLIS = TimeUnit.SECONDS.toMillis(90);
+
+    private final ILogger logger = new NoLogFactory().getLogger(RegistryReplicatorTest.class.getName());
+    private final Map<String, byte[]> replicatedEntries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private RegistryReplicator leader;
+    private RegistryReplicator follower;
+
+    @Before
+    public void setup() {
+        leader = new RegistryReplicator(() -> member(true), APP_NAME, MAX_STALENESS_MILLIS, logger, clock::get);
+        follower = new RegistryReplicator(() -> member(false), APP_NAME, MAX_STALENESS_MILLIS, logger, clock::get);
+    }
+
+    @Test
+    public void shouldShareLeaderRegistryWithFollowers() {
+        leader.publish(newApplication());
+
+        Application replicated = follower.getReplicatedApplication();
+
+        assertThat(leader.isLeader(), is(true));
+        assertThat(follower.isLeader(), is(false));
+        assertThat(replicated, notNullValue());
+        assertThat(replicated.getInstancesAsIsFromEureka().size(), is(3));
+        assertThat(leader.getReplicatedApplication(), nullValue());
+    }
+
+    @Test
+    public void shouldNotPublishFromFollower() {
+        follower.publish(newApplication());
+
+        assertThat(replicatedEntries.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldIgnoreStaleRegistry() {
+        leader.publish(newApplication());
+        clock.addAndGet(MAX_STALENESS_MILLIS + 1);
+
+        assertThat(follower.getReplicatedApplication(), nullValue());
+    }
+
+    @Test
+    public void shouldPollEurekaWithoutHazelcastInstance() {
+        RegistryReplicator starting = new RegistryReplicator(() -> null, APP_NAME, MAX_STALENESS_MILLIS, logger);
+
+        assertThat(starting.isLeader(), is(false));
+        assertThat(starting.getReplicatedApplication(), nullValue());
+    }
+
+    @Test
+    public void shouldServeFollowerRefreshesFromReplicatedRegistry() {
+        leader.publish(newApplication());
+        EurekaHttpClient delegate = mock(EurekaHttpClient.class);
+        EurekaHttpClient client = new ReplicatedRegistryEurekaHttpClient(follower, delegate);
+
+        EurekaHttpResponse<Applications> full = client.getApplications();
+        EurekaHttpResponse<Applications> delta = client.getDelta();
+
+        verifyNoInteractions(delegate);
+        Application application = full.getEntity().getRegisteredApplications(APP_NAME);
+        assertThat(full.getStatusCode(), is(200));
+        // only the UP instances are served
+        assertThat(application.getInstancesAsIsFromEureka().size(), is(2));
+        assertThat(delta.getStatusCode(), is(200));
+        assertThat(delta.getEntity().getRegisteredApplications().isEmpty(), is(true));
+        assertThat(delta.getEntity().getAppsHashCode(), is(full.getEntity().getReconcileHashCode()));
+    }
+
+    @Test
+    public void shouldForwardLeaderRefreshesToEureka() {
+        leader.publish(newApplication());
+        EurekaHttpClient delegate = mock(EurekaHttpClient.class);
+        EurekaHttpClient client = new ReplicatedRegistryEurekaHttpClient(leader, delegate);
+
+        client.getApplications();
+
+        verify(delegate).getApplications();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private HazelcastInstance member(boolean oldest) {
+        ReplicatedMap map = mock(ReplicatedMap.class);
+        when(map.get(any())).thenAnswer(invocation -> replicatedEntries.get(invocation.getArgument(0)));
+        when(map.put(any(), any())).thenAnswer(invocation ->
+                replicatedEntries.put(invocation.getArgument(0), invocation.getArgument(1)));
+
+        Member member = mock(Member.class);
+        when(member.localMember()).thenReturn(oldest);
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getMembers()).thenReturn(Collections.singleton(member));
+
+        HazelcastInstance instance = mock(HazelcastInstance.class);
+        when(instance.getCluster()).thenReturn(cluster);
+        when(instance.getReplicatedMap(anyString())).thenReturn(map);
+        return instance;
+    }
+
+    private static Application newApplication() {
+        Application application = new Application(APP_NAME);
+        InstanceInfo.InstanceStatus[] statuses = {
+                InstanceInfo.InstanceStatus.UP, InstanceInfo.InstanceStatus.UP, InstanceInfo.InstanceStatus.DOWN};
+        for (int i = 0; i < statuses.length; i++) {
+            application.addInstance(InstanceInfo.Builder.newBuilder()
+                    .setAppName(APP_NAME)
+                    .setInstanceId("instance-" + i)
+                    .setHostName("host-" + i)
+                    .setIPAddr("10.0.0." + i)
+                    .setPort(5701)
+                    .setStatus(statuses[i])
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                    .build());
+        }
+        return application;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator.RequestType;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+
+/**
+ * {@link EurekaHttpClient} replaying a {@link TrafficRecording}, like {@link FakeEurekaHttpClient} but with a
+ * registry changing over time as it did when it was recorded.
+ * <p>
+ * The recording is replayed from the creation of the client, with the original timing or faster by
+ * {@code speed}. A full registry fetch returns the last recorded full registry with the deltas recorded since
+ * applied, a delta fetch returns the deltas recorded since the previous fetch merged into one. The hash code of the
+ * replayed deltas is the one of the replayed registry, so a {@code DiscoveryClient} applying them stays consistent,
+ * and recovers with a full fetch after a replayed failure like it would from a real one. Writes always succeed.
+ */
+final class ReplayEurekaHttpClient implements EurekaHttpClient {
+
+    private final List<TrafficRecording.Entry> entries;
+    private final double speed;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    // guarded by this
+    private long deltaServedMillis = -1;
+
+    ReplayEurekaHttpClient(List<TrafficRecording.Entry> entries, double speed) {
+        this(entries, speed, System::nanoTime);
+    }
+
+    ReplayEurekaHttpClient(List<TrafficRecording.Entry> entries, double speed, LongSupplier nanoClock) {
+        this.entries = new ArrayList<>(entries);
+        this.speed = speed;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return the position in the recording
+     */
+    long getElapsedMillis() {
+        return (long) (TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos) * speed);
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> register(InstanceInfo info) {
+        return anEurekaHttpResponse(204).build();
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> cancel(String appName, String id) {
+        return anEurekaHttpResponse(200).build();
+    }
+
+    @Override
+    public EurekaHttpResponse<InstanceInfo> sendHeartBeat(String appName, String id, InstanceInfo info,
+                                                          InstanceInfo.InstanceStatus overriddenStatus) {
+        return anEurekaHttpResponse(200, info)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .build();
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> statusUpdate(String appName, String id, InstanceInfo.InstanceStatus newStatus,
+                                                 InstanceInfo info) {
+        return anEurekaHttpResponse(200).build();
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> deleteStatusOverride(String appName, String id, InstanceInfo info) {
+        return anEurekaHttpResponse(200).build();
+    }
+
+    @Override
+    public synchronized EurekaHttpResponse<Applications> getApplications(String... regions) {
+        long elapsedMillis = getElapsedMillis();
+        deltaServedMillis = elapsedMillis;
+        TrafficRecording.Entry last = getLast(RequestType.GetApplications, elapsedMillis);
+        if (last != null && last.getStatusCode() != 200) {
+            return EurekaHttpResponse.<Applications>anEurekaHttpResponse(last.getStatusCode(), null).build();
+        }
+        Applications registry = getRegistry(elapsedMillis);
+        if (registry == null) {
+            return EurekaHttpResponse.<Applications>anEurekaHttpResponse(404, null).build();
+        }
+        return anEurekaHttpResponse(200, registry)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .build();
+    }
+
+    @Override
+    public synchronized EurekaHttpResponse<Applications> getDelta(String... regions) {
+        long elapsedMillis = getElapsedMillis();
+        Applications delta = new Applications();
+        int failedStatusCode = 200;
+        for (TrafficRecording.Entry entry : entries) {
+            if (entry.getRequestType() != RequestType.GetDelta || entry.getOffsetMillis() <= deltaServedMillis
+                    || entry.getOffsetMillis() > elapsedMillis) {
+                continue;
+            }
+            if (entry.getStatusCode() == 200 && entry.getEntity() != null) {
+                failedStatusCode = 200;
+                merge(delta, (Applications) entry.getEntity());
+            } else {
+                failedStatusCode = entry.getStatusCode();
+            }
+        }
+        deltaServedMillis = elapsedMillis;
+        if (failedStatusCode != 200) {
+            return EurekaHttpResponse.<Applications>anEurekaHttpResponse(failedStatusCode, null).build();
+        }
+        Applications registry = getRegistry(elapsedMillis);
+        delta.setAppsHashCode(registry == null ? new Applications().getReconcileHashCode()
+                : registry.getReconcileHashCode());
+        return anEurekaHttpResponse(200, delta)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .build();
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions) {
+        return EurekaHttpResponse.<Applications>anEurekaHttpResponse(404, null).build();
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getSecureVip(String secureVipAddress, String... regions) {
+        return EurekaHttpResponse.<Applications>anEurekaHttpResponse(404, null).build();
+    }
+
+    @Override
+    public synchronized EurekaHttpResponse<Application> getApplication(String appName) {
+        long elapsedMillis = getElapsedMillis();
+        Application application = null;
+        for (TrafficRecording.Entry entry : entries) {
+            if (entry.getOffsetMillis() > elapsedMillis) {
+                break;
+            }
+            if (entry.getRequestType() == RequestType.GetApplication && entry.getEntity() != null
+                    && ((Application) entry.getEntity()).getName().equalsIgnoreCase(appName)) {
+                application = (Application) entry.getEntity();
+            }
+        }
+        if (application == null) {
+            Applications registry = getRegistry(elapsedMillis);
+            application = registry == null ? null : registry.getRegisteredApplications(appName);
+        }
+        if (application == null) {
+            return EurekaHttpResponse.<Application>anEurekaHttpResponse(404, null).build();
+        }
+        return anEurekaHttpResponse(200, application)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .build();
+    }
+
+    @Override
+    public EurekaHttpResponse<InstanceInfo> getInstance(String appName, String id) {
+        return EurekaHttpResponse.<InstanceInfo>anEurekaHttpResponse(404, null).build();
+    }
+
+    @Override
+    public EurekaHttpResponse<InstanceInfo> getInstance(String id) {
+        return EurekaHttpResponse.<InstanceInfo>anEurekaHttpResponse(404, null).build();
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * @return the last entry of the request type recorded up to the position, {@code null} if there is none
+     */
+    private TrafficRecording.Entry getLast(RequestType requestType, long elapsedMillis) {
+        TrafficRecording.Entry last = null;
+        for (TrafficRecording.Entry entry : entries) {
+            if (entry.getOffsetMillis() > elapsedMillis) {
+                break;
+            }
+            if (entry.getRequestType() == requestType) {
+                last = entry;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @return the last recorded full registry with the deltas recorded since applied, the first recorded full
+     * registry before it is reached, or {@code null} if there is none
+     */
+    private Applications getRegistry(long elapsedMillis) {
+        int base = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            TrafficRecording.Entry entry = entries.get(i);
+            if (entry.getRequestType() == RequestType.GetApplications && entry.getEntity() != null
+                    && (base == -1 || entry.getOffsetMillis() <= elapsedMillis)) {
+                base = i;
+            }
+        }
+        if (base == -1) {
+            return null;
+        }
+        Applications registry = new Applications();
+        merge(registry, (Applications) entries.get(base).getEntity());
+        for (int i = base + 1; i < entries.size() && entries.get(i).getOffsetMillis() <= elapsedMillis; i++) {
+            TrafficRecording.Entry entry = entries.get(i);
+            if (entry.getRequestType() == RequestType.GetDelta && entry.getEntity() != null) {
+                applyDelta(registry, (Applications) entry.getEntity());
+            }
+        }
+        registry.setAppsHashCode(registry.getReconcileHashCode());
+        return registry;
+    }
+
+    /**
+     * Adds the instances of {@code source} to {@code target}, replacing the instances with the same id.
+     */
+    private static void merge(Applications target, Applications source) {
+        for (Application application : source.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstancesAsIsFromEureka()) {
+                getOrCreate(target, application.getName()).addInstance(instance);
+            }
+        }
+    }
+
+    private static void applyDelta(Applications registry, Applications delta) {
+        for (Application application : delta.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstancesAsIsFromEureka()) {
+                if (instance.getActionType() != InstanceInfo.ActionType.DELETED) {
+                    getOrCreate(registry, application.getName()).addInstance(instance);
+                    continue;
+                }
+                Application existing = registry.getRegisteredApplications(application.getName());
+                if (existing != null) {
+                    existing.removeInstance(instance);
+                    if (existing.getInstancesAsIsFromEureka().isEmpty()) {
+                        registry.removeApplication(existing);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Application getOrCreate(Applications applications, String appName) {
+        Application application = applications.getRegisteredApplications(appName);
+        if (application == null) {
+            application = new Application(appName);
+            applications.addApplication(application);
+        }
+        return application;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import org.junit.Test;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsCollectionContaining.hasItems;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class SeedSubsetTest {
+
+    private static final int NODES = 400;
+    private static final int SIZE = 8;
+
+    @Test
+    public void shouldReturnAllNodesWhenFewerThanSize() throws UnknownHostException {
+        List<DiscoveryNode> nodes = newNodes(SIZE);
+
+        assertThat(new SeedSubset("10.1.0.1:5701", SIZE, 3, () -> false).select(nodes, new long[SIZE]), sameInstance(nodes));
+    }
+
+    @Test
+    public void shouldIncludeOldestMembers() throws UnknownHostException {
+        List<DiscoveryNode> nodes = newNodes(NODES);
+        long[] upTimestamps = new long[NODES];
+        for (int i = 0; i < NODES; i++) {
+            upTimestamps[i] = NODES - i;
+        }
+
+        List<DiscoveryNode> subset = new SeedSubset("10.1.0.1:5701", SIZE, 3, () -> false).select(nodes, upTimestamps);
+
+        assertThat(subset.size(), is(SIZE));
+        // oldest first
+        assertThat(subset.subList(0, 3), is(Arrays.asList(nodes.get(NODES - 1), nodes.get(NODES - 2), nodes.get(NODES - 3))));
+    }
+
+    @Test
+    public void shouldSelectStableSubsetPerJoiner() throws UnknownHostException {
+        List<DiscoveryNode> nodes = newNodes(NODES);
+        List<DiscoveryNode> shuffled = new ArrayList<>(nodes);
+        Collections.shuffle(shuffled);
+
+        List<DiscoveryNode> subset = new SeedSubset("10.1.0.1:5701", SIZE, 0, () -> false).select(nodes, new long[NODES]);
+        List<DiscoveryNode> again = new SeedSubset("10.1.0.1:5701", SIZE, 0, () -> false).select(shuffled, new long[NODES]);
+        List<DiscoveryNode> otherJoiner = new SeedSubset("10.1.0.2:5701", SIZE, 0, () -> false).select(nodes, new long[NODES]);
+
+        assertThat(again, is(subset));
+        assertThat(otherJoiner, not(hasItems(subset.toArray(new DiscoveryNode[0]))));
+    }
+
+    @Test
+    public void shouldReturnAllNodesOnceJoined() throws UnknownHostException {
+        List<DiscoveryNode> nodes = newNodes(NODES);
+        AtomicBoolean joined = new AtomicBoolean();
+        SeedSubset seedSubset = new SeedSubset("10.1.0.1:5701", SIZE, 3, joined::get);
+        assertThat(seedSubset.select(nodes, new long[NODES]).size(), is(SIZE));
+
+        joined.set(true);
+
+        // split-brain merges must discover every node
+        assertThat(seedSubset.select(nodes, new long[NODES]), sameInstance(nodes));
+    }
+
+    private static List<DiscoveryNode> newNodes(int count) throws UnknownHostException {
+        List<DiscoveryNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(new SimpleDiscoveryNode(new Address("10.0." + i / 256 + "." + i % 256, 5701)));
+        }
+        return nodes;
+    }
+}
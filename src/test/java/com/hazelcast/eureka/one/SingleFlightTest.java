@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+    private static final long TTL_MILLIS = 1000;
+    private static final int FALLBACK = -1;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    @Test
+    public void shouldShareInFlightComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlight<Integer> singleFlight = new SingleFlight<>(() -> {
+            await(release);
+            return computations.incrementAndGet();
+        }, FALLBACK, 0, result -> true, coalesced::incrementAndGet, nanoTime::get);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            Future<?>[] results = new Future<?>[CALLERS];
+            for (int i = 0; i < CALLERS; i++) {
+                results[i] = executor.submit(singleFlight::get);
+            }
+            while (coalesced.get() < CALLERS - 1) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            release.countDown();
+
+            for (Future<?> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS), is(1));
+            }
+            assertThat(computations.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReuseResultWithinTtl() {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>(computations::incrementAndGet, FALLBACK, TTL_MILLIS,
+                result -> true, coalesced::incrementAndGet, nanoTime::get);
+
+        assertThat(singleFlight.get(), is(1));
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS) - 1);
+        assertThat(singleFlight.get(), is(1));
+        nanoTime.incrementAndGet();
+        assertThat(singleFlight.get(), is(2));
+        assertThat(coalesced.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotReuseFailures() {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>(() -> {
+            if (computations.incrementAndGet() == 1) {
+                throw new IllegalStateException("Eureka unavailable");
+            }
+            return computations.get();
+        }, FALLBACK, TTL_MILLIS, result -> true, coalesced::incrementAndGet, nanoTime::get);
+
+        try {
+            singleFlight.get();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertThat(singleFlight.get(), is(2));
+        }
+    }
+
+    @Test
+    public void shouldNotReuseRejectedResults() {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>(computations::incrementAndGet, FALLBACK, TTL_MILLIS,
+                result -> result > 1, coalesced::incrementAndGet, nanoTime::get);
+
+        assertThat(singleFlight.get(), is(1));
+        assertThat(singleFlight.get(), is(2));
+        assertThat(singleFlight.get(), is(2));
+        assertThat(coalesced.get(), is(1));
+    }
+
+    @Test
+    public void shouldReturnLastResultWhenInterrupted() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlight<Integer> singleFlight = new SingleFlight<>(() -> {
+            int computation = computations.incrementAndGet();
+            if (computation > 1) {
+                started.countDown();
+                await(release);
+            }
+            return computation;
+        }, FALLBACK, 0, result -> true, coalesced::incrementAndGet, nanoTime::get);
+        assertThat(singleFlight.get(), is(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> running = executor.submit(singleFlight::get);
+            started.await(10, TimeUnit.SECONDS);
+
+            Thread.currentThread().interrupt();
+            assertThat(singleFlight.get(), is(1));
+            assertThat(Thread.interrupted(), is(true));
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS), is(2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnFallbackWhenInterruptedBeforeFirstResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlight<Integer> singleFlight = new SingleFlight<>(() -> {
+            started.countDown();
+            await(release);
+            return computations.incrementAndGet();
+        }, FALLBACK, TTL_MILLIS, result -> true, coalesced::incrementAndGet, nanoTime::get);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> running = executor.submit(singleFlight::get);
+            started.await(10, TimeUnit.SECONDS);
+
+            Thread.currentThread().interrupt();
+            assertThat(singleFlight.get(), is(FALLBACK));
+            assertThat(Thread.interrupted(), is(true));
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class SnapshotBackupRegistryTest {
+
+    private static final String APP_NAME = "HAZELCAST-TEST";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRoundTripSnapshot() throws Exception {
+        Application application = newApplication(3);
+        InstanceInfo expected = application.getInstancesAsIsFromEureka().get(0);
+
+        Path snapshotFile = folder.getRoot().toPath().resolve("registry.snapshot");
+        RegistrySnapshot.writeTo(snapshotFile, application);
+        Application actual = RegistrySnapshot.readFrom(snapshotFile);
+
+        assertThat(actual.getName(), is(APP_NAME));
+        assertThat(actual.getInstancesAsIsFromEureka().size(), is(3));
+
+        InstanceInfo restored = actual.getByInstanceId(expected.getId());
+        assertThat(restored, notNullValue());
+        assertThat(restored.getIPAddr(), is(expected.getIPAddr()));
+        assertThat(restored.getHostName(), is(expected.getHostName()));
+        assertThat(restored.getPort(), is(expected.getPort()));
+        assertThat(restored.getStatus(), is(InstanceInfo.InstanceStatus.UP));
+        assertThat(restored.getMetadata().get(EurekaHazelcastMetadata.HAZELCAST_PORT), is("5701"));
+    }
+
+    @Test
+    public void shouldServeSnapshotOfConstructingStrategyOnly() throws Exception {
+        Path snapshotFile = folder.getRoot().toPath().resolve("registry.snapshot");
+        RegistrySnapshot.writeTo(snapshotFile, newApplication(2));
+        Path otherSnapshotFile = folder.getRoot().toPath().resolve("other-registry.snapshot");
+        RegistrySnapshot.writeTo(otherSnapshotFile, newApplication(3));
+
+        Applications applications = SnapshotBackupRegistry.withSnapshotFile(snapshotFile, SnapshotBackupRegistry::new)
+                .fetchRegistry();
+
+        Application application = applications.getRegisteredApplications(APP_NAME);
+        assertThat(application, notNullValue());
+        assertThat(application.getInstancesAsIsFromEureka().size(), is(2));
+    }
+
+    @Test
+    public void shouldServeNothingOutsideClientConstruction() throws Exception {
+        Path snapshotFile = folder.getRoot().toPath().resolve("registry.snapshot");
+        RegistrySnapshot.writeTo(snapshotFile, newApplication(2));
+        SnapshotBackupRegistry.withSnapshotFile(snapshotFile, SnapshotBackupRegistry::new);
+
+        Applications applications = new SnapshotBackupRegistry().fetchRegistry();
+
+        assertThat(applications.getRegisteredApplications(APP_NAME), nullValue());
+    }
+
+    @Test
+    public void shouldIgnoreMissingSnapshots() {
+        Path snapshotFile = folder.getRoot().toPath().resolve("missing.snapshot");
+
+        Applications applications = new SnapshotBackupRegistry(snapshotFile).fetchRegistry();
+
+        assertThat(applications.getRegisteredApplications(APP_NAME), nullValue());
+    }
+
+    private static Application newApplication(int size) {
+        Application application = new Application(APP_NAME);
+        for (int i = 0; i < size; i++) {
+            Map<String, String> metadata = new HashMap<>();
+            metadata.put(EurekaHazelcastMetadata.HAZELCAST_PORT, "5701");
+            application.addInstance(InstanceInfo.Builder.newBuilder()
+                    .setAppName(APP_NAME)
+                    .setInstanceId("instance-" + i)
+                    .setHostName("host-" + i)
+                    .setIPAddr("10.0.0." + i)
+                    .setPort(5701)
+                    .setStatus(InstanceInfo.InstanceStatus.UP)
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                    .setMetadata(metadata)
+                    .build());
+        }
+        return application;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.eureka.one;
+
+import com.hazelcast.logging.NoLogFactory;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.decorator.EurekaHttpClientDecorator.RequestType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class TrafficRecordingTest {
+
+    private static final String APP_NAME = "HAZELCAST-TEST";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRecordRegistryResponses() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("traffic.rec");
+        TrafficRecording.Writer writer = newWriter(file);
+        EurekaHttpClient client = new RecordingEurekaHttpClient(writer,
+                new FakeEurekaHttpClient(InstanceInfos.newApplications(APP_NAME, newInstance("a"), newInstance("b"))));
+
+        client.getApplications();
+        client.getDelta();
+        client.getApplication(APP_NAME);
+        client.cancel(APP_NAME, "a");
+        writer.close();
+
+        List<TrafficRecording.Entry> entries = TrafficRecording.readFrom(file);
+        assertThat(entries.size(), is(3));
+        assertThat(entries.get(0).getRequestType(), is(RequestType.GetApplications));
+        assertThat(entries.get(1).getRequestType(), is(RequestType.GetDelta));
+        assertThat(entries.get(2).getRequestType(), is(RequestType.GetApplication));
+        assertThat(entries.get(0).getStatusCode(), is(200));
+        Applications registry = (Applications) entries.get(0).getEntity();
+        assertThat(registry.getRegisteredApplications(APP_NAME).getInstancesAsIsFromEureka().size(), is(2));
+        Application application = (Application) entries.get(2).getEntity();
+        assertThat(application.getByInstanceId("b").getIPAddr(), is("10.0.0.1"));
+    }
+
+    @Test
+    public void shouldReadRecordingWhichWasNotClosed() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("traffic.rec");
+        TrafficRecording.Writer writer = newWriter(file);
+
+        writer.record(RequestType.GetApplications, 200, InstanceInfos.newApplications(APP_NAME, newInstance("a")));
+        writer.record(RequestType.GetDelta, 500, null);
+
+        List<TrafficRecording.Entry> entries = awaitEntries(file, 2);
+        assertThat(entries.get(1).getStatusCode(), is(500));
+        assertThat(entries.get(1).getEntity(), nullValue());
+        writer.close();
+    }
+
+    @Test
+    public void shouldKeepPreviousRecording() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("traffic.rec");
+        TrafficRecording.Writer writer = newWriter(file);
+        writer.record(RequestType.GetApplications, 200, InstanceInfos.newApplications(APP_NAME, newInstance("a")));
+        writer.close();
+
+        writer = newWriter(file);
+        writer.record(RequestType.GetDelta, 200, InstanceInfos.newApplications(APP_NAME, newInstance("b")));
+        writer.close();
+
+        List<TrafficRecording.Entry> previous = TrafficRecording.readFrom(file.resolveSibling("traffic.rec.1"));
+        assertThat(previous.size(), is(1));
+        assertThat(previous.get(0).getRequestType(), is(RequestType.GetApplications));
+        List<TrafficRecording.Entry> entries = TrafficRecording.readFrom(file);
+        assertThat(entries.size(), is(1));
+        assertThat(entries.get(0).getRequestType(), is(RequestType.GetDelta));
+    }
+
+    @Test
+    public void shouldDropEntriesInsteadOfBlocking() {
+        Path file = folder.getRoot().toPath().resolve("traffic.rec");
+        // the writer thread never writes
+        TrafficRecording.Writer writer = new TrafficRecording.Writer(file, new NoLogFactory().getLogger("test"),
+                runnable -> new Thread(() -> { }));
+
+        for (int i = 0; i <= TrafficRecording.Writer.QUEUE_CAPACITY; i++) {
+            writer.record(RequestType.GetDelta, 200, null);
+        }
+
+        assertThat(writer.getDroppedEntries(), is(1L));
+    }
+
+    @Test
+    public void shouldReplayRegistryChangesTimeCompressed() {
+        InstanceInfo added = newInstance("c");
+        added.setActionType(InstanceInfo.ActionType.ADDED);
+        InstanceInfo deleted = newInstance("a");
+        deleted.setActionType(InstanceInfo.ActionType.DELETED);
+        List<TrafficRecording.Entry> entries = Arrays.asList(
+                new TrafficRecording.Entry(0, RequestType.GetApplications, 200,
+                        InstanceInfos.newApplications(APP_NAME, newInstance("a"), newInstance("b"))),
+                new TrafficRecording.Entry(30_000, RequestType.GetDelta, 200, InstanceInfos.newApplications(APP_NAME, added)),
+                new TrafficRecording.Entry(60_000, RequestType.GetDelta, 200, InstanceInfos.newApplications(APP_NAME, deleted)));
+        AtomicLong nanos = new AtomicLong();
+        ReplayEurekaHttpClient client = new ReplayEurekaHttpClient(entries, 30, nanos::get);
+
+        assertThat(instanceIds(client.getApplications()), is("a,b"));
+
+        nanos.set(TimeUnit.SECONDS.toNanos(1));
+        EurekaHttpResponse<Applications> delta = client.getDelta();
+        assertThat(delta.getStatusCode(), is(200));
+        assertThat(instanceIds(delta), is("c"));
+        InstanceInfo replayed = delta.getEntity().getRegisteredApplications(APP_NAME).getByInstanceId("c");
+        assertThat(replayed.getActionType(), is(InstanceInfo.ActionType.ADDED));
+        assertThat(delta.getEntity().getAppsHashCode(),
+                is(InstanceInfos.newApplications(APP_NAME, newInstance("a"), newInstance("b"), newInstance("c")).getReconcileHashCode()));
+        assertThat(instanceIds(client.getDelta()), is(""));
+
+        nanos.set(TimeUnit.SECONDS.toNanos(2));
+        assertThat(instanceIds(client.getApplications()), is("b,c"));
+        assertThat(client.getApplication(APP_NAME).getEntity().getByInstanceId("a"), nullValue());
+        assertThat(client.getApplication(APP_NAME).getEntity().getByInstanceId("c"), notNullValue());
+    }
+
+    @Test
+    public void shouldReplayRecordedFailures() {
+        List<TrafficRecording.Entry> entries = Arrays.asList(
+                new TrafficRecording.Entry(0, RequestType.GetApplications, 200, InstanceInfos.newApplications(APP_NAME, newInstance("a"))),
+                new TrafficRecording.Entry(1_000, RequestType.GetDelta, 503, null));
+        AtomicLong nanos = new AtomicLong();
+        ReplayEurekaHttpClient client = new ReplayEurekaHttpClient(entries, 1, nanos::get);
+        client.getApplications();
+
+        nanos.set(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(client.getDelta().getStatusCode(), is(503));
+        assertThat(instanceIds(client.getApplications()), is("a"));
+    }
+
+    private static TrafficRecording.Writer newWriter(Path file) {
+        return new TrafficRecording.Writer(file, new NoLogFactory().getLogger("test"),
+                DiscoveryThreads.newThreadFactory("test-traffic-recording", false));
+    }
+
+    private static List<TrafficRecording.Entry> awaitEntries(Path file, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                List<TrafficRecording.Entry> entries = TrafficRecording.readFrom(file);
+                if (entries.size() >= count || System.nanoTime() > deadline) {
+                    assertThat(entries.size(), is(count));
+                    return entries;
+                }
+            } catch (IOException e) {
+                // nothing flushed yet
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static String instanceIds(EurekaHttpResponse<Applications> response) {
+        Application application = response.getEntity().getRegisteredApplications(APP_NAME);
+        StringBuilder ids = new StringBuilder();
+        if (application != null) {
+            application.getInstancesAsIsFromEureka().stream().map(InstanceInfo::getId).sorted()
+                    .forEach(id -> ids.append(ids.length() == 0 ? "" : ",").append(id));
+        }
+        return ids.toString();
+    }
+
+    private static InstanceInfo newInstance(String id) {
+        return InstanceInfos.newInstance(APP_NAME, id, "10.0.0." + (id.charAt(0) - 'a'), 5701);
+    }
+}